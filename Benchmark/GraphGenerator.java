@@ -0,0 +1,239 @@
+import java.util.*;
+import java.io.*;
+/**
+ * This class writes seeded graphs in ClauseGen's input format, for the kinds of graphs the
+ * pipeline is used on.  The same family, size and seed always give the same graph.
+ *
+ * The families are:
+ *   gnp      a random directed graph where every edge is added with probability p.  Directed
+ *            random graphs gain Hamiltonian paths around p = ln(n) / n, so that is used when no p is given.
+ *   planted  a gnp graph with a Hamiltonian path through a random order of the vertices added to it
+ *   grid     an n by n grid, with edges both ways between neighbouring squares
+ *   knight   an n by n chess board, with edges both ways between squares a knight's move apart
+ *
+ * The input format cannot list a vertex that has no edges, so gnp gives any such vertex an edge
+ * to the next vertex, and boards too small to connect every square (knight boards under 4 by 4)
+ * are refused.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class GraphGenerator{
+    /**
+     * Main method.  It writes one graph to a file, or to the terminal if no file is given.
+     * @param args family, size, optional edge probability (or "threshold"), optional seed, and optional output file name
+     */
+    public static void main(String[] args){
+        if(args.length < 2){
+            System.err.println("Error: usage is GraphGenerator [gnp|planted|grid|knight] [n] [p|threshold] [seed] [outputFile]\nTerminating...\n");
+            System.exit(1);
+        }
+        int n = Integer.parseInt(args[1]);
+        double p = args.length > 2 && !args[2].equals("threshold") ? Double.parseDouble(args[2]) : thresholdP(n);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        String graph = generate(args[0], n, p, seed);
+        if(args.length > 4){
+            try{
+                FileWriter output = new FileWriter(args[4], false);
+                output.write(graph);
+                output.close();
+            }
+            catch(IOException e){
+                System.err.println("Error: File \"" + args[4] + "\" could not be created or could not be written to.\nTerminating...");
+                System.exit(1);
+            }
+        }
+        else{
+            System.out.print(graph);
+        }
+    }
+
+    /**
+     * builds a graph of the named family.
+     * @param family one of gnp, planted, grid or knight
+     * @param n number of vertices for gnp and planted, or the side of the board for grid and knight
+     * @param p edge probability for gnp and planted; ignored otherwise
+     * @param seed seed for the random number generator
+     * @return the graph as an edge list
+     */
+    public static String generate(String family, int n, double p, long seed){
+        if(family.equals("gnp")){
+            return randomGraph(seed, n, p);
+        }
+        if(family.equals("planted")){
+            return plantedGraph(seed, n, p);
+        }
+        if(family.equals("grid")){
+            return gridGraph(n);
+        }
+        if(family.equals("knight")){
+            return knightGraph(n);
+        }
+        throw new IllegalArgumentException("Unknown graph family " + family);
+    }
+
+    /**
+     * returns the edge probability near which random directed graphs start to have Hamiltonian paths.
+     * @param n number of vertices
+     * @return ln(n) / n
+     */
+    public static double thresholdP(int n){
+        return Math.log(n) / n;
+    }
+
+    /**
+     * builds a seeded random directed graph where every edge is added with probability p.
+     * Each vertex is given an edge to the next one if it has none at all, so that it appears in the list.
+     * @param seed seed for the random number generator
+     * @param n number of vertices
+     * @param p probability of each edge
+     * @return the graph as an edge list
+     */
+    public static String randomGraph(long seed, int n, double p){
+        boolean[][] edges = randomEdges(new Random(seed), n, p);
+        for(int a = 0; a < n; a ++){
+            if(!touched(edges, a)){
+                edges[a][(a + 1) % n] = true;
+            }
+        }
+        return edgeList(edges);
+    }
+
+    /**
+     * builds a seeded random directed graph that is sure to have a Hamiltonian path: the
+     * vertices are shuffled and joined in that order, and every other edge is added with
+     * probability p.
+     * @param seed seed for the random number generator
+     * @param n number of vertices
+     * @param p probability of each other edge
+     * @return the graph as an edge list
+     */
+    public static String plantedGraph(long seed, int n, double p){
+        Random random = new Random(seed);
+        boolean[][] edges = randomEdges(random, n, p);
+        int[] order = new int[n];
+        for(int i = 0; i < n; i ++){
+            order[i] = i;
+        }
+        int j;
+        int temp;
+        for(int i = n - 1; i > 0; i --){
+            j = random.nextInt(i + 1);
+            temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
+        }
+        for(int i = 0; i + 1 < n; i ++){
+            edges[order[i]][order[i + 1]] = true;
+        }
+        return edgeList(edges);
+    }
+
+    /**
+     * builds a side by side grid, with edges both ways between squares that share a side.
+     * @param side number of rows and columns
+     * @return the graph as an edge list
+     */
+    public static String gridGraph(int side){
+        return boardGraph(side, new int[][]{{0, 1}, {1, 0}, {0, -1}, {-1, 0}});
+    }
+
+    /**
+     * builds a side by side chess board, with edges both ways between squares a knight's move apart.
+     * @param side number of rows and columns
+     * @return the graph as an edge list
+     */
+    public static String knightGraph(int side){
+        return boardGraph(side, new int[][]{{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}});
+    }
+
+    /**
+     * builds a board graph, joining each square to the squares the given moves reach.
+     * @param side number of rows and columns
+     * @param moves row and column offsets of each move
+     * @return the graph as an edge list
+     */
+    private static String boardGraph(int side, int[][] moves){
+        int n = side * side;
+        boolean[][] edges = new boolean[n][n];
+        int row;
+        int column;
+        for(int square = 0; square < n; square ++){
+            for(int i = 0; i < moves.length; i ++){
+                row = square / side + moves[i][0];
+                column = square % side + moves[i][1];
+                if(row >= 0 && row < side && column >= 0 && column < side){
+                    edges[square][row * side + column] = true;
+                }
+            }
+        }
+        return edgeList(edges);
+    }
+
+    /**
+     * picks each edge between two different vertices with probability p.
+     * @param random the random number generator
+     * @param n number of vertices
+     * @param p probability of each edge
+     * @return adjacency matrix of the chosen edges
+     */
+    private static boolean[][] randomEdges(Random random, int n, double p){
+        boolean[][] edges = new boolean[n][n];
+        for(int a = 0; a < n; a ++){
+            for(int b = 0; b < n; b ++){
+                edges[a][b] = a != b && random.nextDouble() < p;
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * checks whether a vertex has an edge in either direction.
+     * @param edges the adjacency matrix
+     * @param vertex the vertex to check
+     * @return true if any edge starts or ends at the vertex
+     */
+    private static boolean touched(boolean[][] edges, int vertex){
+        for(int other = 0; other < edges.length; other ++){
+            if(edges[vertex][other] || edges[other][vertex]){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * writes an adjacency matrix in ClauseGen's input format, naming the vertices V0, V1, ...
+     * @param edges the adjacency matrix
+     * @return the number of vertices followed by one line per edge
+     */
+    public static String edgeList(boolean[][] edges){
+        StringBuilder build = new StringBuilder();
+        build.append(edges.length).append('\n');
+        for(int a = 0; a < edges.length; a ++){
+            if(!touched(edges, a)){
+                throw new IllegalArgumentException("Vertex V" + a + " has no edges, so it cannot be listed in ClauseGen's input format");
+            }
+            for(int b = 0; b < edges.length; b ++){
+                if(edges[a][b]){
+                    build.append('V').append(a).append(" V").append(b).append('\n');
+                }
+            }
+        }
+        return build.toString();
+    }
+
+    /**
+     * counts the edges in an edge list made by this class.
+     * @param graph the edge list
+     * @return the number of edge lines
+     */
+    public static int countEdges(String graph){
+        int lines = 0;
+        for(int i = 0; i < graph.length(); i ++){
+            if(graph.charAt(i) == '\n'){
+                lines ++;
+            }
+        }
+        return lines - 1;
+    }
+}
@@ -0,0 +1,143 @@
+import java.util.*;
+import java.io.*;
+import java.lang.management.*;
+/**
+ * This class measures how the pipeline scales.  It sweeps graph families, sizes and edge
+ * densities from GraphGenerator, runs the whole pipeline on each graph under a time budget,
+ * and writes one CSV row per run with the size of the DPLL input, the result, the time spent
+ * in each part, and the peak heap used.  Plotting the rows against n or p gives the scaling
+ * curves, so a change that makes a curve steeper is easy to spot.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class ScalingHarness{
+    /**
+     * Main method.  It runs the sweep described by the flags.
+     * @param args optional flags:
+     *             --out [file]         CSV file to write (scaling-results.csv by default)
+     *             --families [list]    comma separated families (gnp,planted,grid,knight by default)
+     *             --sizes [list]       comma separated sizes (6,8,10 by default); board side for grid and knight
+     *             --densities [list]   comma separated edge probabilities, or "threshold" (the default)
+     *             --seeds [n]          number of seeds per setting (3 by default)
+     *             --budget [seconds]   time budget for each search (10 by default)
+     *             --options [flags]    space separated flags given to the pipeline, such as "--cardinality"
+     */
+    public static void main(String[] args){
+        String out = "scaling-results.csv";
+        String[] families = {"gnp", "planted", "grid", "knight"};
+        String[] sizes = {"6", "8", "10"};
+        String[] densities = {"threshold"};
+        int seeds = 3;
+        String budget = "10";
+        String options = "";
+        for(int i = 0; i + 1 < args.length; i += 2){
+            if(args[i].equals("--out")){
+                out = args[i + 1];
+            }
+            else if(args[i].equals("--families")){
+                families = args[i + 1].split(",");
+            }
+            else if(args[i].equals("--sizes")){
+                sizes = args[i + 1].split(",");
+            }
+            else if(args[i].equals("--densities")){
+                densities = args[i + 1].split(",");
+            }
+            else if(args[i].equals("--seeds")){
+                seeds = Integer.parseInt(args[i + 1]);
+            }
+            else if(args[i].equals("--budget")){
+                budget = args[i + 1];
+            }
+            else if(args[i].equals("--options")){
+                options = args[i + 1].trim();
+            }
+            else{
+                System.err.println("Warning: unknown option \"" + args[i] + "\" was ignored.");
+            }
+        }
+
+        ArrayList<String> flags = new ArrayList<String>();
+        if(!options.equals("")){
+            flags.addAll(Arrays.asList(options.split(" +")));
+        }
+        flags.add("--timeout=" + budget);
+        Pipeline pipeline = null;
+        try{
+            pipeline = Pipeline.fromFlags(flags.toArray(new String[0]));
+        }
+        catch(IllegalArgumentException e){
+            System.err.println("Error: " + e.getMessage() + ".\nTerminating...");
+            System.exit(1);
+        }
+
+        try{
+            PrintWriter csv = new PrintWriter(new FileWriter(out, false));
+            csv.println("family,n,p,seed,vertices,edges,cnf_bytes,result,generate_ms,parse_ms,solve_ms,decode_ms,total_ms,peak_heap_mb");
+            for(int f = 0; f < families.length; f ++){
+                for(int s = 0; s < sizes.length; s ++){
+                    boolean random = families[f].equals("gnp") || families[f].equals("planted");
+                    for(int d = 0; d < (random ? densities.length : 1); d ++){
+                        for(int seed = 1; seed <= (random ? seeds : 1); seed ++){
+                            csv.println(runOnce(pipeline, families[f], Integer.parseInt(sizes[s]), random ? densities[d] : "", seed));
+                            csv.flush();
+                        }
+                    }
+                }
+            }
+            csv.close();
+            System.out.println("Results written to " + out);
+        }
+        catch(IOException e){
+            System.err.println("Error: File \"" + out + "\" could not be created or could not be written to.\nTerminating...");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * generates one graph, runs the pipeline on it, and describes the run.
+     * @param pipeline the pipeline to run
+     * @param family the graph family
+     * @param n the size given to the family
+     * @param density the edge probability, "threshold", or "" for families without one
+     * @param seed the seed for the graph
+     * @return a CSV row describing the run
+     * @throws IOException if the pipeline could not read it's own DPLL input
+     */
+    static String runOnce(Pipeline pipeline, String family, int n, String density, long seed) throws IOException{
+        double p = density.equals("threshold") ? GraphGenerator.thresholdP(n) : density.equals("") ? 0 : Double.parseDouble(density);
+        String graph;
+        try{
+            graph = GraphGenerator.generate(family, n, p, seed);
+        }
+        catch(IllegalArgumentException e){
+            System.err.println("Skipping " + family + " n=" + n + ": " + e.getMessage());
+            return family + "," + n + "," + density + "," + seed + ",,,,SKIPPED,,,,,,";
+        }
+
+        System.gc();
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()){
+            if(pool.getType() == MemoryType.HEAP){
+                pool.resetPeakUsage();
+            }
+        }
+        PipelineResult run = pipeline.run(graph);
+        long peak = 0;
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()){
+            if(pool.getType() == MemoryType.HEAP){
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        String result = run.timedOut() ? "TIMEOUT" : run.hasPath() ? "SAT" : "UNSAT";
+        int vertices = Integer.parseInt(graph.substring(0, graph.indexOf('\n')));
+        String row = String.format(Locale.ROOT, "%s,%d,%s,%d,%d,%d,%d,%s,%.3f,%.3f,%.3f,%.3f,%.3f,%.1f", family, n,
+                                   density.equals("") ? "" : String.format(Locale.ROOT, "%.4f", p), seed, vertices,
+                                   GraphGenerator.countEdges(graph), run.getCnfBytes(), result,
+                                   run.getGenerateNanos() / 1e6, run.getParseNanos() / 1e6,
+                                   run.getSolveNanos() / 1e6, run.getDecodeNanos() / 1e6, run.getTotalNanos() / 1e6,
+                                   peak / (1024.0 * 1024.0));
+        System.out.println(row);
+        return row;
+    }
+}
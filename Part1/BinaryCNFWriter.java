@@ -0,0 +1,126 @@
+import java.util.*;
+import java.io.*;
+/**
+ * ClauseSink that writes clauses in a compact binary format that DPLL can read in place
+ * of the text file.  Every number is written as a variable length integer (seven bits per
+ * byte, high bit set on every byte but the last), and literals are written as the zig-zag
+ * encoded difference from the literal before them, which keeps most of them to one byte.
+ *
+ * The file is laid out as follows:
+ *   the magic bytes "HPCN" and a version byte
+ *   the number of atoms, the number of binary clauses, and the number of other clauses
+ *   the binary clause block: for every clause, the first literal minus the first literal of
+ *       the previous binary clause, then the second literal minus the first
+ *   the long clause block: for every clause, it's length, then each literal minus the one before it
+ *   the length of the footer in bytes, followed by the footer as UTF-8 text
+ *
+ * Binary clauses are streamed as they arrive.  The few long clauses are held until finish()
+ * so that the binary clauses can be kept together in one dense block.  Because of this, the
+ * number of clauses of each kind must be known ahead of time (see ClauseCounter).
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class BinaryCNFWriter implements ClauseSink{
+    public static final byte[] MAGIC = {'H', 'P', 'C', 'N'}; //first four bytes of every binary CNF file
+    public static final int VERSION = 1; //format version written after the magic bytes
+
+    private OutputStream out; //stream the file is written to
+    private ArrayList<int[]> longClauses = new ArrayList<int[]>(); //long clauses held until the binary block is done
+    private long expectedBinary; //number of binary clauses promised in the header
+    private long writtenBinary = 0; //number of binary clauses written so far
+    private int previousFirst = 0; //first literal of the last binary clause, used for delta encoding
+    private IOException failure = null; //first write error, reported by finish() since addBinary cannot throw
+
+    /**
+     * constructor that writes the header of the file.
+     * @param out the stream to write to.  It should be buffered.
+     * @param numAtoms the largest atom that will appear in any clause
+     * @param numBinary the exact number of binary clauses that will be added
+     * @param numLong the exact number of other clauses that will be added
+     * @throws IOException if the header could not be written
+     */
+    public BinaryCNFWriter(OutputStream out, int numAtoms, long numBinary, int numLong) throws IOException{
+        this.out = out;
+        this.expectedBinary = numBinary;
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarLong(numAtoms);
+        writeVarLong(numBinary);
+        writeVarLong(numLong);
+    }
+
+    public void addBinary(int first, int second){
+        if(failure != null){
+            return;
+        }
+        try{
+            writeVarLong(zigZag(first - previousFirst));
+            writeVarLong(zigZag(second - first));
+            previousFirst = first;
+            writtenBinary ++;
+        }
+        catch(IOException e){
+            failure = e;
+        }
+    }
+
+    public void addClause(int[] literals){
+        longClauses.add(literals.clone());
+    }
+
+    /**
+     * writes the long clause block and the footer, then closes the stream.
+     * @param footer the footer text that DPLL passes along to part 3 (everything after the 0 line)
+     * @throws IOException if any part of the file could not be written, or the clause counts did not match the header
+     */
+    public void finish(String footer) throws IOException{
+        try{
+            if(failure != null){
+                throw failure;
+            }
+            if(writtenBinary != expectedBinary){
+                throw new IOException("Expected " + expectedBinary + " binary clauses but received " + writtenBinary);
+            }
+            int[] clause;
+            int previous;
+            for(int i = 0; i < longClauses.size(); i ++){
+                clause = longClauses.get(i);
+                writeVarLong(clause.length);
+                previous = 0;
+                for(int j = 0; j < clause.length; j ++){
+                    writeVarLong(zigZag(clause[j] - previous));
+                    previous = clause[j];
+                }
+            }
+            byte[] footerBytes = footer.getBytes("UTF-8");
+            writeVarLong(footerBytes.length);
+            out.write(footerBytes);
+        }
+        finally{ //closed even when writing fails, so the file is not left open
+            out.close();
+        }
+    }
+
+    /**
+     * maps a signed number onto an unsigned one so that numbers close to zero, positive or
+     * negative, become small: 0, -1, 1, -2, 2 ... become 0, 1, 2, 3, 4 ...
+     * @param value the signed value
+     * @return the zig-zag encoding of value
+     */
+    private static long zigZag(long value){
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * writes a non negative number seven bits at a time, lowest bits first.
+     * @param value the number to write
+     * @throws IOException if the stream could not be written to
+     */
+    private void writeVarLong(long value) throws IOException{
+        while((value & ~0x7FL) != 0){
+            out.write((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int)value);
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * ClauseSink that only counts the clauses it is given.  It is used for a first pass over
+ * the graph when an output format needs to know how many clauses there are before any
+ * of them are written.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class ClauseCounter implements ClauseSink{
+    private long numBinary = 0; //number of two literal clauses seen
+    private int numLong = 0; //number of clauses of any other length seen
+    private long numLiterals = 0; //total number of literals across every clause
+
+    public void addBinary(int first, int second){
+        numBinary ++;
+        numLiterals += 2;
+    }
+
+    public void addClause(int[] literals){
+        numLong ++;
+        numLiterals += literals.length;
+    }
+
+    /**
+     * getter for the number of binary clauses counted
+     * @return the number of binary clauses
+     */
+    public long getNumBinary(){
+        return numBinary;
+    }
+
+    /**
+     * getter for the number of non binary clauses counted
+     * @return the number of clauses passed to addClause
+     */
+    public int getNumLong(){
+        return numLong;
+    }
+
+    /**
+     * getter for the total number of literals counted
+     * @return the number of literals across every clause
+     */
+    public long getNumLiterals(){
+        return numLiterals;
+    }
+}
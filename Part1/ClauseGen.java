@@ -1,5 +1,6 @@
 import java.util.*;
 import java.io.*;
+import java.util.zip.GZIPOutputStream;
 /**
  * Class containing the main method that handles the logic of creating the DPLL input file that
  * encodes a given graph.  The program expects a correctly formatted input file that lists the edges
@@ -8,36 +9,194 @@ import java.io.*;
  */
 public class ClauseGen{
     static GraphTranslator graph; //graph to translate
+    static boolean binary = false; //write the compact binary format instead of text (--binary)
+    static boolean gzip = false; //compress the output file (--gzip)
+    static boolean mapped = false; //write packed ints into a memory mapped file (--mapped)
+    static boolean lazy = false; //leave the illegal path clauses for the solver to add as needed (--lazy)
+    static String outputName = null; //file to write instead of DPLLInput.txt, so that several runs can share a directory (--out=name)
     public static void main(String[] args){
         readInput(args); //file reading
-        File DPLL = new File("DPLLInput.txt");
-        FileWriter output = null;
-        try{ //call every method of the graph translator that produces the needed clauses.  There are five sets of clauses to be produced, and a footer.
-            output = new FileWriter(DPLL, false);
+        readOptions(args);
+        String fileName = binary ? "DPLLInput.bin" : "DPLLInput.txt";
+        if(mapped){
+            fileName = "DPLLInput.map";
+            if(gzip){
+                System.err.println("Warning: option \"--gzip\" was ignored; a mapped file is read in place and cannot be compressed.");
+            }
+        }
+        else if(gzip){
+            fileName += ".gz";
+        }
+        if(outputName != null){
+            fileName = outputName;
+        }
+        try{
+            if(mapped){
+                writeMapped(new File(fileName));
+            }
+            else if(binary){
+                writeBinary(new File(fileName));
+            }
+            else{
+                writeText(new File(fileName));
+            }
+        }
+        catch(IOException e){
+            System.err.println("Error: File \"" + fileName + "\" could not be created or could not be written to.\nTerminating...");
+        }
+    }
+
+    /**
+     * reads the optional flags that may follow the input file name.
+     * @param args command line arguments
+     */
+    public static void readOptions(String[] args){
+        for(int i = 1; i < args.length; i ++){
+            if(!setOption(args[i])){
+                System.err.println("Warning: unknown option \"" + args[i] + "\" was ignored.");
+            }
+        }
+    }
+
+    /**
+     * turns on a single option flag, such as "--binary".
+     * @param option the flag to turn on
+     * @return false if the flag is not one ClauseGen knows
+     */
+    public static boolean setOption(String option){
+        if(option.equals("--binary")){
+            binary = true;
+        }
+        else if(option.equals("--gzip")){
+            gzip = true;
+        }
+        else if(option.equals("--mapped")){
+            mapped = true;
+        }
+        else if(option.equals("--lazy")){
+            lazy = true;
+        }
+        else if(option.startsWith("--out=")){
+            outputName = option.substring(6);
+        }
+        else{
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * turns every option flag back off, for programs that run ClauseGen more than once.
+     */
+    public static void resetOptions(){
+        binary = false;
+        gzip = false;
+        mapped = false;
+        lazy = false;
+        outputName = null;
+    }
+
+    /**
+     * opens the given file for writing, compressing it if --gzip was given.
+     * @param f the file to open
+     * @return a buffered stream that writes to the file
+     * @throws IOException if the file could not be created
+     */
+    private static OutputStream openOutput(File f) throws IOException{
+        OutputStream out = new FileOutputStream(f, false);
+        if(gzip){
+            out = new GZIPOutputStream(out, 1 << 16);
+        }
+        return new BufferedOutputStream(out, 1 << 16);
+    }
+
+    /**
+     * writes the DPLL input as text, one clause per line.
+     * @param f the file to write
+     * @throws IOException if the file could not be created or written to
+     */
+    public static void writeText(File f) throws IOException{
+        writeText(new OutputStreamWriter(openOutput(f), "UTF-8"));
+    }
+
+    /**
+     * writes the DPLL input as text to the given writer, which is closed afterwards, even when
+     * writing fails.
+     * @param output the writer to write to
+     * @throws IOException if the writer could not be written to
+     */
+    public static void writeText(Writer output) throws IOException{
+        try{
+            //call every method of the graph translator that produces the needed clauses.  There are five sets of clauses to be produced, and a footer.
             String allVerticesTraversed = graph.allVerticesTraversed();
             output.write(allVerticesTraversed);
             String oneVerticesPerTime = graph.oneVerticesPerTime();
             output.write(oneVerticesPerTime);
-            String noIllegalPaths = graph.noIllegalPaths();
-            output.write(noIllegalPaths);
+            if(!lazy){
+                String noIllegalPaths = graph.noIllegalPaths();
+                output.write(noIllegalPaths);
+            }
             String vertexAtAllTimes = graph.vertexAtAllTimes();
             output.write(vertexAtAllTimes);
             String singleTraversal = graph.singleTraversal();
             output.write(singleTraversal);
-            String trailer = graph.addTrailer();
+            String trailer = graph.addTrailer(lazy);
             output.write(trailer);
+        }
+        finally{ //closed even when writing fails, so the file is not left open
             output.close();
         }
-        catch(IOException e){
-            System.err.println("Error: File \"DPLLInput.txt\" could not be created or could not be written to.\nTerminating...");
+    }
+
+    /**
+     * writes the DPLL input in the binary format of BinaryCNFWriter.  The clauses are generated
+     * twice: once to count them for the header, and once to actually write them, so that no
+     * clause has to be held in memory as text.
+     * @param f the file to write
+     * @throws IOException if the file could not be created or written to
+     */
+    public static void writeBinary(File f) throws IOException{
+        writeBinary(openOutput(f));
+    }
+
+    /**
+     * writes the DPLL input in the binary format to the given stream, which is closed afterwards,
+     * even when writing fails.
+     * @param out the stream to write to.  It should be buffered.
+     * @throws IOException if the stream could not be written to
+     */
+    public static void writeBinary(OutputStream out) throws IOException{
+        try{
+            ClauseCounter counter = new ClauseCounter();
+            graph.writeClauses(counter, !lazy);
+            BinaryCNFWriter writer = new BinaryCNFWriter(out, graph.numVertices * graph.numVertices,
+                                                         counter.getNumBinary(), counter.getNumLong());
+            graph.writeClauses(writer, !lazy);
+            writer.finish(graph.footer(lazy));
+        }
+        finally{ //finish() closes the stream, but the header or a clause may fail to be written before it is reached
+            out.close();
         }
     }
 
     /**
-     * Method used for file reading.  The method creates the graph in two passes of the data.  The first pass reads
-     * each edge in and creates and edge object to store in the program.  It also creates the vertices based on the edges
-     * being read in.  Then, the second pass scans through the given edges and connectes the already created vertices based
-     * on the data.
+     * writes the DPLL input as packed ints into a memory mapped file (see MappedClauseWriter).
+     * Like writeBinary(), the clauses are generated once to count them, so the file can be
+     * given it's final size, and once more to write them.
+     * @param f the file to write
+     * @throws IOException if the file could not be created or written to
+     */
+    public static void writeMapped(File f) throws IOException{
+        ClauseCounter counter = new ClauseCounter();
+        graph.writeClauses(counter, !lazy);
+        MappedClauseWriter writer = new MappedClauseWriter(f, graph.numVertices * graph.numVertices, counter, graph.footer(lazy));
+        graph.writeClauses(writer, !lazy);
+        writer.finish();
+    }
+
+    /**
+     * Method used for file reading.  It opens the file named by the first command line argument
+     * and builds the graph from it with readGraph().
      * @param args command line argument specifying the file to read.
      */
     public static void readInput(String[] args){
@@ -48,46 +207,57 @@ public class ClauseGen{
 
         File f = new File(args[0]);
         try{
-            Scanner scan = new Scanner(f);
-            String name;
-            String connection;
-            Vertices temp;
-            HashMap<String, Vertices> nodesByName = new HashMap<String, Vertices>(); //will hash a name to it's created vertices
-            ArrayList<Edge> pairs = new ArrayList<Edge>(); //used to hold edges as we read them in.
-            ArrayList<Vertices> verticesList = new ArrayList<Vertices>(); //used to store Vertices as we create them
-            int numVertices = scan.nextInt();
-            while(scan.hasNext()){
-                name = scan.next();
-                connection = scan.next();
-                pairs.add(new Edge(name, connection)); //create a new edge and store it
-                if(nodesByName.get(name) == null){ //if either the name or connection does not exist yet, create a vertices for it.
-                    temp = new Vertices(name);
-                    verticesList.add(temp);
-                    nodesByName.put(name, temp);
-                }
-                if(nodesByName.get(connection) == null){
-                    temp = new Vertices(connection);
-                    verticesList.add(temp);
-                    nodesByName.put(connection, temp);
-                }
-            }
-
-            Edge current;
-            Vertices head;
-            Vertices tail;
-            for(int i = 0; i < pairs.size(); i ++){ //scan through the edges, and use the hashmap to retreive the created vertices and connect them
-                current = pairs.get(i);
-                head = nodesByName.get(current.getName());
-                tail = nodesByName.get(current.getConnection());
-                head.addConnection(tail);
-            }
-            Collections.sort(verticesList); //sort the verticies
-            System.out.println(numVertices);
-            graph = new GraphTranslator(numVertices, verticesList); //create the graph using the list of connected verticies.
+            graph = readGraph(new Scanner(f));
+            System.out.println(graph.numVertices);
         }
         catch(FileNotFoundException e){
             System.err.println("Error: The file \"" + args[0] + "\" could not be found.\nTerminating...\n");
             System.exit(1);
         }
     }
+
+    /**
+     * Method that creates the graph in two passes of the data.  The first pass reads
+     * each edge in and creates and edge object to store in the program.  It also creates the vertices based on the edges
+     * being read in.  Then, the second pass scans through the given edges and connectes the already created vertices based
+     * on the data.
+     * @param scan scanner positioned at the number of vertices, followed by the edges
+     * @return a GraphTranslator for the graph that was read
+     */
+    public static GraphTranslator readGraph(Scanner scan){
+        String name;
+        String connection;
+        Vertices temp;
+        HashMap<String, Vertices> nodesByName = new HashMap<String, Vertices>(); //will hash a name to it's created vertices
+        ArrayList<Edge> pairs = new ArrayList<Edge>(); //used to hold edges as we read them in.
+        ArrayList<Vertices> verticesList = new ArrayList<Vertices>(); //used to store Vertices as we create them
+        int numVertices = scan.nextInt();
+        while(scan.hasNext()){
+            name = scan.next();
+            connection = scan.next();
+            pairs.add(new Edge(name, connection)); //create a new edge and store it
+            if(nodesByName.get(name) == null){ //if either the name or connection does not exist yet, create a vertices for it.
+                temp = new Vertices(name);
+                verticesList.add(temp);
+                nodesByName.put(name, temp);
+            }
+            if(nodesByName.get(connection) == null){
+                temp = new Vertices(connection);
+                verticesList.add(temp);
+                nodesByName.put(connection, temp);
+            }
+        }
+
+        Edge current;
+        Vertices head;
+        Vertices tail;
+        for(int i = 0; i < pairs.size(); i ++){ //scan through the edges, and use the hashmap to retreive the created vertices and connect them
+            current = pairs.get(i);
+            head = nodesByName.get(current.getName());
+            tail = nodesByName.get(current.getConnection());
+            head.addConnection(tail);
+        }
+        Collections.sort(verticesList); //sort the verticies
+        return new GraphTranslator(numVertices, verticesList); //create the graph using the list of connected verticies.
+    }
 }
\ No newline at end of file
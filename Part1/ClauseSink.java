@@ -0,0 +1,24 @@
+/**
+ * A ClauseSink receives the clauses produced by the GraphTranslator one at a time.
+ * A clause is a list of integer literals, where a negative literal is a flipped atom.
+ * This lets the same clause generation code produce text output, binary output, or
+ * simply count what would be produced.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public interface ClauseSink{
+    /**
+     * receives a clause made of exactly two literals.  Nearly every clause in the
+     * Hamiltonian path encoding is a binary clause, so sinks may store these specially.
+     * @param first the first literal of the clause
+     * @param second the second literal of the clause
+     */
+    void addBinary(int first, int second);
+
+    /**
+     * receives a clause of any length.  The array belongs to the caller and may be
+     * reused once this method returns.
+     * @param literals the literals of the clause
+     */
+    void addClause(int[] literals);
+}
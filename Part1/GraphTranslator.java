@@ -21,6 +21,15 @@ public class GraphTranslator{
         this.numVertices = numVertices;
     }
 
+    /**
+     * getter for the vertices of the graph, in the sorted order used to number the atoms.
+     * The list is not copied, so it should not be changed by the caller.
+     * @return the list of vertices
+     */
+    public ArrayList<Vertices> getVertices(){
+        return graph;
+    }
+
     /**
      * this method take an array index, corresponding to the vertex at that position,
      * and a time value to produce an integer representation of an atom.  Each vertices
@@ -51,6 +60,33 @@ public class GraphTranslator{
         return build.toString();
     }
 
+    /**
+     * This method sends every set of clauses needed for the DPLL encoding to the given sink,
+     * in the same order that they are written to the text file.  It is used by the output
+     * formats that do not go through Strings.
+     * @param sink the ClauseSink that will receive every clause
+     */
+    public void writeClauses(ClauseSink sink){
+        writeClauses(sink, true);
+    }
+
+    /**
+     * This method sends the sets of clauses needed for the DPLL encoding to the given sink,
+     * optionally leaving out the clauses of noIllegalPaths().  Those can instead be added by
+     * the solver as they are needed, using the edges listed in the footer.
+     * @param sink the ClauseSink that will receive every clause
+     * @param transitions false to leave out the clauses produced by noIllegalPaths()
+     */
+    public void writeClauses(ClauseSink sink, boolean transitions){
+        allVerticesTraversed(sink);
+        oneVerticesPerTime(sink);
+        if(transitions){
+            noIllegalPaths(sink);
+        }
+        vertexAtAllTimes(sink);
+        singleTraversal(sink);
+    }
+
     /**
      * This method produces the first set of clauses needed for the DPLL encoding of
      * the Hamiltonian path problem.  It produces multiple lines, where each one is
@@ -59,14 +95,23 @@ public class GraphTranslator{
      * @return a string containing a line for every Vertices
      */
     public String allVerticesTraversed(){
-        StringBuilder build = new StringBuilder(numVertices * numVertices *2);
+        TextClauseSink build = new TextClauseSink(numVertices * numVertices *2);
+        allVerticesTraversed(build);
+        return build.toString();
+    }
+
+    /**
+     * sends the clauses of allVerticesTraversed() to the given sink.
+     * @param sink the ClauseSink that will receive the clauses
+     */
+    public void allVerticesTraversed(ClauseSink sink){
+        int[] clause = new int[numVertices];
         for(int index = 0; index < numVertices; index ++){ //select a Vertices
-            for(int time = 1; time <= numVertices; time ++){ //append a list of the Vertices at each position
-                build.append(getAtom(index, time) + " ");
+            for(int time = 1; time <= numVertices; time ++){ //list the Vertices at each position
+                clause[time - 1] = getAtom(index, time);
             }
-            build.append("\n");
+            sink.addClause(clause);
         }
-        return build.toString();
     }
 
     /**
@@ -78,16 +123,23 @@ public class GraphTranslator{
      *         that at least one of the two must not be true.
      */
     public String oneVerticesPerTime(){
-        StringBuilder build = new StringBuilder(((numVertices * (numVertices - 1))/2) * numVertices * 6);
+        TextClauseSink build = new TextClauseSink(((numVertices * (numVertices - 1))/2) * numVertices * 6);
+        oneVerticesPerTime(build);
+        return build.toString();
+    }
+
+    /**
+     * sends the clauses of oneVerticesPerTime() to the given sink.
+     * @param sink the ClauseSink that will receive the clauses
+     */
+    public void oneVerticesPerTime(ClauseSink sink){
         for(int time = 1; time <= numVertices; time ++){ //determine the position to work on
             for(int index1 = 0; index1 < numVertices; index1 ++){ //get the first vertices at position "time"
                 for(int index2 = index1 + 1; index2 < numVertices; index2 ++){ //get the second vertices at position "time"
-                    build.append(-(getAtom(index1, time)) + " ");
-                    build.append(-(getAtom(index2, time)) + "\n");
+                    sink.addBinary(-(getAtom(index1, time)), -(getAtom(index2, time)));
                 }
             }
         }
-        return build.toString();
     }
 
     /**
@@ -100,7 +152,16 @@ public class GraphTranslator{
      *         that only legal ones are followed.
      */
     public String noIllegalPaths(){
-        StringBuilder build = new StringBuilder((numVertices - 1) * (numVertices - 1) * numVertices/2 * 6);
+        TextClauseSink build = new TextClauseSink((numVertices - 1) * (numVertices - 1) * numVertices/2 * 6);
+        noIllegalPaths(build);
+        return build.toString();
+    }
+
+    /**
+     * sends the clauses of noIllegalPaths() to the given sink.
+     * @param sink the ClauseSink that will receive the clauses
+     */
+    public void noIllegalPaths(ClauseSink sink){
         boolean [] hasPath;
         Vertices[] connections;
         Vertices current;
@@ -118,13 +179,23 @@ public class GraphTranslator{
                 if(hasPath[index2]){ //if there is a connection, continue
                     continue;
                 }
-                for(int time = 2; time <= numVertices; time ++){ //if there is no connection, produce clauses saying that we cannot traverse it.
-                    build.append(-(getAtom(index1, time - 1)) + " ");
-                    build.append(-(getAtom(index2, time)) + "\n");
-                }
+                noIllegalPaths(index1, index2, sink); //if there is no connection, produce clauses saying that we cannot traverse it.
             }
         }
-        return build.toString();
+    }
+
+    /**
+     * sends the clauses of noIllegalPaths() for a single missing edge to the given sink:
+     * if the start vertex is true at time x, the end vertex cannot be true at time x + 1.
+     * This lets a caller regenerate the clauses for just the vertex pairs whose edges changed.
+     * @param index1 index of the start vertex of the missing edge
+     * @param index2 index of the end vertex of the missing edge
+     * @param sink the ClauseSink that will receive the clauses
+     */
+    public void noIllegalPaths(int index1, int index2, ClauseSink sink){
+        for(int time = 2; time <= numVertices; time ++){
+            sink.addBinary(-(getAtom(index1, time - 1)), -(getAtom(index2, time)));
+        }
     }
 
     /**
@@ -134,14 +205,23 @@ public class GraphTranslator{
      * @return a String where the lines represent set of clauses to ensure that an atom exists at every time vertex
      */
     public String vertexAtAllTimes(){
-        StringBuilder build = new StringBuilder(numVertices * numVertices * 2);
+        TextClauseSink build = new TextClauseSink(numVertices * numVertices * 2);
+        vertexAtAllTimes(build);
+        return build.toString();
+    }
+
+    /**
+     * sends the clauses of vertexAtAllTimes() to the given sink.
+     * @param sink the ClauseSink that will receive the clauses
+     */
+    public void vertexAtAllTimes(ClauseSink sink){
+        int[] clause = new int[numVertices];
         for(int time = 1; time <= numVertices; time ++){ //get the position to work on
             for(int index = 0; index < numVertices; index ++){ //get every vertex at that position
-                build.append(getAtom(index, time) + " ");
+                clause[index] = getAtom(index, time);
             }
-            build.append("\n");
+            sink.addClause(clause);
         }
-        return build.toString();
     }
 
     /**
@@ -151,16 +231,23 @@ public class GraphTranslator{
      * @return a String where the lines represent a set of clauses that ensures that a vertex doesn't exist at two different positions.
      */
     public String singleTraversal(){
-        StringBuilder build = new StringBuilder(numVertices * numVertices * (numVertices - 1) * 6);
+        TextClauseSink build = new TextClauseSink(numVertices * numVertices * (numVertices - 1) * 6);
+        singleTraversal(build);
+        return build.toString();
+    }
+
+    /**
+     * sends the clauses of singleTraversal() to the given sink.
+     * @param sink the ClauseSink that will receive the clauses
+     */
+    public void singleTraversal(ClauseSink sink){
         for(int index = 0; index < numVertices; index ++){ //select a vertices to work on
             for(int time1 = 1; time1 <= numVertices; time1 ++){ //if it exists at time1...
                 for(int time2 = time1+1; time2 <= numVertices; time2 ++){ //then it cannot exist at time2...
-                    build.append(-(getAtom(index, time1)) + " ");
-                    build.append(-(getAtom(index, time2)) + "\n");
+                    sink.addBinary(-(getAtom(index, time1)), -(getAtom(index, time2)));
                 }
             }
         }
-        return build.toString();
     }
 
     /**
@@ -169,8 +256,39 @@ public class GraphTranslator{
      * @return a string where each line gives the translation of an atom to it's vertex and position.
      */
     public String addTrailer(){
+        return addTrailer(false);
+    }
+
+    /**
+     * This method produces the trailer, marked as lazy if the illegal path clauses were left out.
+     * @param lazy true if the clauses that forbid following edges that do not exist were left out
+     * @return the trailer, as addTrailer() gives it, with a "lazy" line at the end when lazy is true
+     */
+    public String addTrailer(boolean lazy){
+        return 0 + "\n" + footer(lazy);
+    }
+
+    /**
+     * This method produces the body of the trailer, without the 0 line that separates it from the
+     * clauses.  The binary output format stores it on it's own, so it is kept separate from addTrailer().
+     * After the atom lines, every edge of the graph is listed as "e start end", so that the solver
+     * can reason about the graph itself.
+     * @return a string where each line gives the translation of an atom to it's vertex and position,
+     *         followed by a line for each edge.
+     */
+    public String footer(){
+        return footer(false);
+    }
+
+    /**
+     * This method produces the body of the trailer.  When the illegal path clauses were left out,
+     * a last line "lazy" says so, so that the solver adds them as they are needed instead of taking
+     * every order of the vertices to be a path.
+     * @param lazy true if the clauses that forbid following edges that do not exist were left out
+     * @return the body of the trailer, as footer() gives it, with a "lazy" line at the end when lazy is true
+     */
+    public String footer(boolean lazy){
         StringBuilder build = new StringBuilder(numVertices * numVertices * 8);
-        build.append(0 + "\n");
         for(int index = 0; index < numVertices; index ++){
             for(int time = 1; time <= numVertices; time ++){
                 build.append(getAtom(index, time) + " ");
@@ -178,6 +296,17 @@ public class GraphTranslator{
                 build.append(time + "\n");
             }
         }
+        Vertices[] connections;
+        for(int index = 0; index < numVertices; index ++){
+            connections = graph.get(index).getConnections();
+            for(int j = 0; j < connections.length; j ++){
+                build.append("e " + graph.get(index).getName() + " ");
+                build.append(connections[j].getName() + "\n");
+            }
+        }
+        if(lazy){
+            build.append("lazy\n");
+        }
         build.deleteCharAt(build.length() - 1);
         return build.toString();
     }
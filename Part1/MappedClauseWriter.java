@@ -0,0 +1,270 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+/**
+ * ClauseSink that writes clauses as packed ints straight into a memory mapped file, which
+ * DPLL maps in turn and reads in place (see MappedClauseStore in part 2).  Nothing is built
+ * as text or kept on the heap: each literal goes from the GraphTranslator into the operating
+ * system's page cache, which also lets the file grow past the memory given to Java.
+ *
+ * Every number is a little endian int or long at a fixed place, so the file is laid out as follows:
+ *   byte 0   the magic bytes "HPCM"
+ *   byte 4   the format version
+ *   byte 8   the number of atoms
+ *   byte 12  the number of long clauses
+ *   byte 16  the number of binary clauses, as a long
+ *   byte 24  the number of literals in the long clauses, as a long
+ *   byte 32  the length of the footer in bytes
+ *   byte 36  unused
+ *   byte 40  the binary clause block: both literals of each binary clause
+ *   then     the long clause block: for every clause, it's length followed by it's literals
+ *   then     the implication index: a long for every literal, then the edge targets as ints
+ *   then     the footer as UTF-8 text
+ *
+ * The implication index holds the binary clauses as the edges of an implication graph in
+ * compressed sparse rows, so that DPLL can propagate through them in place (see
+ * BinaryImplications).  Literal x is numbered 2 * |x|, plus 1 if x is negative, and the clause
+ * "a b" gives the edges -a -> b and -b -> a.  The edges leaving literal l are the targets from
+ * offset l up to offset l + 1, and each target is written as the signed atom number.  There is
+ * one offset for each of the 2 * (atoms + 1) literal numbers, and one more for the end.  The
+ * index is filled by finish(), from the binary clause block already in the file: once to count
+ * the edges of each literal, and once to place them.
+ *
+ * A single mapping can hold at most 2GB, so the file is mapped in regions of REGION_SIZE
+ * bytes.  Every int starts at a multiple of four, so no int is split between two regions.
+ * The size of the file has to be known before it is mapped, so the number of clauses and
+ * literals of each kind must be counted first (see ClauseCounter).
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class MappedClauseWriter implements ClauseSink{
+    public static final byte[] MAGIC = {'H', 'P', 'C', 'M'}; //first four bytes of every mapped CNF file
+    public static final int VERSION = 2; //format version written after the magic bytes
+    public static final int HEADER_SIZE = 40; //bytes before the binary clause block
+    public static final long REGION_SIZE = 1L << 30; //bytes mapped at a time
+
+    private RandomAccessFile file; //the file being written
+    private FileChannel channel; //channel the regions are mapped from
+    private MappedByteBuffer[] regions; //regions of the file, each mapped the first time it is written to
+    private long position = HEADER_SIZE; //where the next int is written
+    private long size; //size of the whole file
+    private long expectedBinary; //number of binary clauses promised in the header
+    private long writtenBinary = 0; //number of binary clauses written so far
+    private long longStart; //position of the long clause block
+    private long longPosition; //where the next long clause is written
+    private int expectedLong; //number of long clauses promised in the header
+    private int writtenLong = 0; //number of long clauses written so far
+    private int numAtoms; //largest atom allowed in any clause
+    private long indexStart; //position of the implication index's offsets
+    private long targetsStart; //position of the implication index's edge targets
+    private long footerStart; //position of the footer
+    private byte[] footer; //footer text, written by finish()
+    private IOException failure = null; //first write error, reported by finish() since the sink methods cannot throw
+
+    /**
+     * constructor that sizes the file and writes it's header.  Binary and long clauses have their
+     * own blocks, so they may arrive in any order.
+     * @param f the file to write
+     * @param numAtoms the largest atom that will appear in any clause
+     * @param counter a ClauseCounter that has been given exactly the clauses that will be added
+     * @param footer the footer text that DPLL passes along to part 3 (everything after the 0 line)
+     * @throws IOException if the file could not be created
+     */
+    public MappedClauseWriter(File f, int numAtoms, ClauseCounter counter, String footer) throws IOException{
+        this.footer = footer.getBytes("UTF-8");
+        expectedBinary = counter.getNumBinary();
+        expectedLong = counter.getNumLong();
+        long longLiterals = counter.getNumLiterals() - 2 * expectedBinary;
+        this.numAtoms = numAtoms;
+        longStart = HEADER_SIZE + 8 * expectedBinary;
+        longPosition = longStart;
+        indexStart = longStart + 4 * ((long)expectedLong + longLiterals);
+        targetsStart = indexStart + 8 * (2 * ((long)numAtoms + 1) + 1);
+        footerStart = targetsStart + 4 * 2 * expectedBinary;
+        size = footerStart + this.footer.length;
+
+        file = new RandomAccessFile(f, "rw");
+        file.setLength(size);
+        channel = file.getChannel();
+        regions = new MappedByteBuffer[(int)((size + REGION_SIZE - 1) / REGION_SIZE)];
+        long saved = position;
+        position = 0;
+        for(int i = 0; i < MAGIC.length; i ++){
+            putByte(MAGIC[i]);
+        }
+        putInt(VERSION);
+        putInt(numAtoms);
+        putInt(expectedLong);
+        putLong(expectedBinary);
+        putLong(longLiterals);
+        putInt(this.footer.length);
+        putInt(0);
+        position = saved;
+    }
+
+    public void addBinary(int first, int second){
+        if(failure != null){
+            return;
+        }
+        try{
+            putInt(first);
+            putInt(second);
+            writtenBinary ++;
+        }
+        catch(IOException e){
+            failure = e;
+        }
+    }
+
+    public void addClause(int[] literals){
+        if(failure != null){
+            return;
+        }
+        long saved = position; //binary clauses keep their own place
+        try{
+            position = longPosition;
+            putInt(literals.length);
+            for(int i = 0; i < literals.length; i ++){
+                putInt(literals[i]);
+            }
+            longPosition = position;
+            writtenLong ++;
+        }
+        catch(IOException e){
+            failure = e;
+        }
+        position = saved;
+    }
+
+    /**
+     * fills the implication index, writes the footer and closes the file.
+     * @throws IOException if any part of the file could not be written, the clause counts did not
+     *                     match the header, or a clause held an atom larger than the header allows
+     */
+    public void finish() throws IOException{
+        try{
+            if(failure != null){
+                throw failure;
+            }
+            if(writtenBinary != expectedBinary || writtenLong != expectedLong){
+                throw new IOException("Expected " + expectedBinary + " binary and " + expectedLong + " long clauses but received "
+                                      + writtenBinary + " and " + writtenLong);
+            }
+            writeIndex();
+            position = footerStart;
+            for(int i = 0; i < footer.length; i ++){
+                putByte(footer[i]);
+            }
+        }
+        finally{
+            regions = null;
+            channel.close();
+            file.close();
+        }
+    }
+
+    /**
+     * fills the implication index from the binary clause block.  Only the offsets are counted on
+     * the heap, one for each literal; the edges go straight from the block into the file.
+     * @throws IOException if a region could not be mapped, or a clause held an atom that is too large
+     */
+    private void writeIndex() throws IOException{
+        int numLiterals = 2 * (numAtoms + 1);
+        long[] next = new long[numLiterals + 1]; //the edges of each literal while counting, then the next free place in them
+        int first;
+        int second;
+        for(int pass = 0; pass < 2; pass ++){
+            for(long i = 0; i < expectedBinary; i ++){
+                first = getInt(HEADER_SIZE + 8 * i);
+                second = getInt(HEADER_SIZE + 8 * i + 4);
+                if(pass == 0){
+                    if(Math.abs(first) > numAtoms || Math.abs(second) > numAtoms){
+                        throw new IOException("Atom " + Math.max(Math.abs(first), Math.abs(second)) + " is larger than the " + numAtoms + " atoms given in the header");
+                    }
+                    next[literalOf(-first) + 1] ++;
+                    next[literalOf(-second) + 1] ++;
+                }
+                else{
+                    position = targetsStart + 4 * next[literalOf(-first)] ++;
+                    putInt(second);
+                    position = targetsStart + 4 * next[literalOf(-second)] ++;
+                    putInt(first);
+                }
+            }
+            if(pass == 0){
+                for(int i = 0; i < numLiterals; i ++){
+                    next[i + 1] += next[i];
+                }
+                position = indexStart;
+                for(int i = 0; i <= numLiterals; i ++){
+                    putLong(next[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * numbers a literal the way the implication index does.
+     * @param literal the atom number, negative if the atom is flipped
+     * @return 2 * atom, plus 1 if the literal is negative
+     */
+    private static int literalOf(int literal){
+        return 2 * Math.abs(literal) + (literal < 0 ? 1 : 0);
+    }
+
+    /**
+     * finds the region holding a position in the file, mapping it if this is the first time it is used.
+     * @param at the position
+     * @return the region
+     * @throws IOException if the region could not be mapped
+     */
+    private MappedByteBuffer regionOf(long at) throws IOException{
+        int index = (int)(at / REGION_SIZE);
+        if(regions[index] == null){
+            long start = index * REGION_SIZE;
+            regions[index] = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(REGION_SIZE, size - start));
+            regions[index].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return regions[index];
+    }
+
+    /**
+     * writes an int at the write position and moves past it.
+     * @param value the int to write
+     * @throws IOException if the region could not be mapped
+     */
+    private void putInt(int value) throws IOException{
+        regionOf(position).putInt((int)(position % REGION_SIZE), value);
+        position += 4;
+    }
+
+    /**
+     * reads back an int already written to the file.
+     * @param at the position of the int; a multiple of four
+     * @return the int
+     * @throws IOException if the region could not be mapped
+     */
+    private int getInt(long at) throws IOException{
+        return regionOf(at).getInt((int)(at % REGION_SIZE));
+    }
+
+    /**
+     * writes a long at the write position as two ints, lowest first, and moves past it.
+     * @param value the long to write
+     * @throws IOException if the region could not be mapped
+     */
+    private void putLong(long value) throws IOException{
+        putInt((int)value);
+        putInt((int)(value >>> 32));
+    }
+
+    /**
+     * writes a byte at the write position and moves past it.
+     * @param value the byte to write
+     * @throws IOException if the region could not be mapped
+     */
+    private void putByte(byte value) throws IOException{
+        regionOf(position).put((int)(position % REGION_SIZE), value);
+        position ++;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * ClauseSink that writes clauses in the text format read by DPLL.  Each clause is
+ * written on its own line, with its literals separated by spaces.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class TextClauseSink implements ClauseSink{
+    private StringBuilder build; //text of every clause received so far
+
+    /**
+     * constructor that sizes the underlying builder.
+     * @param capacity the expected number of characters that will be written
+     */
+    public TextClauseSink(int capacity){
+        build = new StringBuilder(capacity);
+    }
+
+    public void addBinary(int first, int second){
+        build.append(first).append(' ');
+        build.append(second).append('\n');
+    }
+
+    public void addClause(int[] literals){
+        for(int i = 0; i < literals.length; i ++){
+            build.append(literals[i]).append(' ');
+        }
+        build.append('\n');
+    }
+
+    /**
+     * returns the text of every clause received so far.
+     * @return a String where each line is a clause
+     */
+    public String toString(){
+        return build.toString();
+    }
+}
@@ -0,0 +1,154 @@
+import java.util.*;
+import java.io.*;
+/**
+ * Reads the binary input format written by part 1's BinaryCNFWriter.  Symbols and clauses
+ * are created directly from the numbers in the file, without building a String for any
+ * line.  See BinaryCNFWriter for a description of the layout.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class BinaryCNFReader{
+    public static final byte[] MAGIC = {'H', 'P', 'C', 'N'}; //first four bytes of every binary CNF file
+    public static final int VERSION = 1; //only format version this reader understands
+
+    private InputStream in; //stream positioned just after the magic bytes
+    private Symbol[] symbolsByAtom; //symbols indexed by their atom number; null until the atom is first seen
+
+    /**
+     * checks whether a stream begins with the magic bytes of the binary format.  The stream is
+     * reset to where it started, so it can still be read as text if this returns false.
+     * @param in a stream that supports mark and reset
+     * @return true if the stream holds a binary CNF
+     * @throws IOException if the stream could not be read
+     */
+    public static boolean isBinary(BufferedInputStream in) throws IOException{
+        in.mark(MAGIC.length);
+        boolean matches = true;
+        for(int i = 0; i < MAGIC.length; i ++){
+            if(in.read() != MAGIC[i]){
+                matches = false;
+                break;
+            }
+        }
+        in.reset();
+        return matches;
+    }
+
+    /**
+     * constructor that takes a stream starting with the magic bytes.
+     * @param in the stream to read.  It should be buffered.
+     */
+    public BinaryCNFReader(InputStream in){
+        this.in = in;
+    }
+
+    /**
+     * reads the whole file.  Each clause is added to the given list, each symbol
+     * that appears in a clause is added to the given symbol list in order of it's atom
+     * number (the same order the text format produces), and the footer is returned.
+     * @param symbols list to add every symbol to
+     * @param clauses list to add every clause to
+     * @return the footer text stored at the end of the file
+     * @throws IOException if the file could not be read or is not a supported binary CNF
+     */
+    public String read(ArrayList<Symbol> symbols, ArrayList<Clause> clauses) throws IOException{
+        for(int i = 0; i < MAGIC.length; i ++){
+            if(in.read() != MAGIC[i]){
+                throw new IOException("The file is not a binary CNF file");
+            }
+        }
+        int version = in.read();
+        if(version != VERSION){
+            throw new IOException("Unsupported binary CNF version " + version);
+        }
+        int numAtoms = (int)readVarLong();
+        long numBinary = readVarLong();
+        long numLong = readVarLong();
+        symbolsByAtom = new Symbol[numAtoms + 1];
+        clauses.ensureCapacity((int)Math.min(Integer.MAX_VALUE - 8, clauses.size() + numBinary + numLong));
+
+        int first = 0;
+        int second;
+        for(long i = 0; i < numBinary; i ++){ //dense block of binary clauses
+            first += unZigZag(readVarLong());
+            second = first + unZigZag(readVarLong());
+            clauses.add(new Clause(new Literal[]{toLiteral(first), toLiteral(second)}));
+        }
+
+        Literal[] literals;
+        int previous;
+        for(long i = 0; i < numLong; i ++){ //every other clause, prefixed by it's length
+            literals = new Literal[(int)readVarLong()];
+            previous = 0;
+            for(int j = 0; j < literals.length; j ++){
+                previous += unZigZag(readVarLong());
+                literals[j] = toLiteral(previous);
+            }
+            clauses.add(new Clause(literals));
+        }
+
+        for(int atom = 1; atom <= numAtoms; atom ++){ //list symbols in atom order
+            if(symbolsByAtom[atom] != null){
+                symbols.add(symbolsByAtom[atom]);
+            }
+        }
+
+        byte[] footer = new byte[(int)readVarLong()];
+        int read = 0;
+        int n;
+        while(read < footer.length){
+            n = in.read(footer, read, footer.length - read);
+            if(n < 0){
+                throw new IOException("The binary CNF file ended early");
+            }
+            read += n;
+        }
+        return new String(footer, "UTF-8");
+    }
+
+    /**
+     * turns a signed integer literal into a Literal, creating it's symbol if needed.
+     * @param literal the atom number, negative if the atom is flipped
+     * @return the matching Literal
+     * @throws IOException if the atom is outside of the range given in the header
+     */
+    private Literal toLiteral(int literal) throws IOException{
+        int atom = Math.abs(literal);
+        if(atom == 0 || atom >= symbolsByAtom.length){
+            throw new IOException("Atom " + atom + " is outside of the range given in the header");
+        }
+        if(symbolsByAtom[atom] == null){
+            symbolsByAtom[atom] = new Symbol(atom);
+        }
+        return new Literal(symbolsByAtom[atom], literal < 0);
+    }
+
+    /**
+     * reverses the zig-zag encoding used by the writer.
+     * @param value the encoded value
+     * @return the signed value
+     */
+    private static int unZigZag(long value){
+        return (int)((value >>> 1) ^ -(value & 1));
+    }
+
+    /**
+     * reads a number written seven bits at a time, lowest bits first.
+     * @return the number read
+     * @throws IOException if the stream ended in the middle of a number
+     */
+    private long readVarLong() throws IOException{
+        long value = 0;
+        int shift = 0;
+        int b;
+        do{
+            b = in.read();
+            if(b < 0){
+                throw new IOException("The binary CNF file ended early");
+            }
+            value |= (long)(b & 0x7F) << shift;
+            shift += 7;
+        } while((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,601 @@
+import java.util.*;
+/**
+ * This class holds the two literal clauses of the input as an implication graph.  Nearly all
+ * of the clauses Part 1 writes have two literals (oneVerticesPerTime, noIllegalPaths and
+ * singleTraversal only write "-a -b" clauses), and as Clause objects each of them is checked
+ * by walking lists of Literal objects.  A clause "a b" says that if a is false, b must be
+ * true, and if b is false, a must be true, so it is stored as the two edges -a -> b and
+ * -b -> a.  Following the edges from every true literal finds every value the two literal
+ * clauses force, using nothing but int arrays.
+ *
+ * Each literal is numbered 2 * symbol for the symbol itself and 2 * symbol + 1 for it's negation,
+ * where symbols are numbered by their place in the list given to extract().  The edges leaving
+ * literal l are targets[start[l]] up to targets[start[l + 1]] (compressed sparse rows).  For
+ * every edge a -> b the graph also holds -b -> -a, so the literals of a clause can be found
+ * from either end.
+ *
+ * The binary clauses of a mapped input file are not copied into start and targets.  Part 1
+ * writes the same compressed sparse rows into the file (see MappedClauseWriter), and the
+ * graph follows the edges there through the mapping.  Only where each literal's edges start
+ * is kept on the heap, which is one number per literal like the Symbol objects themselves;
+ * the edges stay in the file.  Clauses in the clause list are left there as Clause objects
+ * in that case.
+ *
+ * Two optional passes shrink the graph once it is built.  mergeEquivalences() finds literals
+ * that imply each other (strongly connected components), which must all have the same value,
+ * and links each of them to one representative instead of to each other.  It also finds
+ * input that has no solution, when a literal and it's negation imply each other.  reduce()
+ * removes an edge a -> c whenever edges a -> b and b -> c are also present, since following
+ * those reaches c anyway.  Neither changes which values are forced.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class BinaryImplications{
+    private Symbol[] symbols; //symbols, by number
+    private int[] numberOf; //numberOf[atom] is the number of the symbol with that name, or -1
+    private int[] start; //edges leaving literal l are targets[start[l]] to targets[start[l + 1] - 1]
+    private int[] targets; //the head of each edge
+    private MappedClauseStore mapped = null; //mapped input whose implication index holds the edges instead of targets, or null
+    private long[] mappedStart; //edges leaving literal l are the mapped input's edges mappedStart[l] to mappedStart[l + 1] - 1
+    private long numClauses; //number of two literal clauses taken from the clause list or the mapped input
+    private int head = 0; //position in the model up to which every symbol's edges have been followed
+    private boolean contradictory = false; //set when a literal and it's negation were found to imply each other
+
+    /**
+     * builds the implication graph for the binary clauses of a mapped input file, which are
+     * followed in place through the file's implication index.  The clause list is not changed.
+     * @param symbols every symbol used by the clauses
+     * @param store the mapped input
+     * @return the implication graph
+     */
+    public static BinaryImplications extract(ArrayList<Symbol> symbols, MappedClauseStore store){
+        BinaryImplications graph = new BinaryImplications(symbols);
+        graph.mapped = store;
+        graph.numClauses = store.getNumBinary();
+        int numLiterals = 2 * graph.symbols.length;
+        graph.mappedStart = new long[numLiterals + 1];
+        for(int literal = 0; literal < numLiterals; literal ++){
+            graph.mappedStart[literal] = store.getEdgeStart(2 * graph.symbols[literal >> 1].getName() + (literal & 1));
+        }
+        graph.mappedStart[numLiterals] = 2 * store.getNumBinary(); //atoms in no clause have no symbol and no edges, so the rows of the symbols meet
+        return graph;
+    }
+
+    /**
+     * takes every two literal clause out of a clause list and builds the implication graph for them.
+     * @param clauses the clause list.  Clauses with two literals are removed from it.
+     * @param symbols every symbol used by the clauses
+     * @return the implication graph
+     * @throws IllegalArgumentException if there are too many clauses for the int arrays of the graph
+     */
+    public static BinaryImplications extract(ArrayList<Clause> clauses, ArrayList<Symbol> symbols){
+        BinaryImplications graph = new BinaryImplications(symbols);
+        ArrayList<Clause> kept = new ArrayList<Clause>(clauses.size());
+        ArrayList<Clause> binaries = new ArrayList<Clause>();
+        Clause c;
+        for(int i = 0; i < clauses.size(); i ++){
+            c = clauses.get(i);
+            if(c.size() == 2 && c.getLiteral(0).getSym() != c.getLiteral(1).getSym()){
+                binaries.add(c);
+            }
+            else{
+                kept.add(c);
+            }
+        }
+        clauses.clear();
+        clauses.addAll(kept);
+
+        long numEdges = 2L * binaries.size();
+        if(numEdges > Integer.MAX_VALUE - 8){
+            throw new IllegalArgumentException("Too many two literal clauses for an implication graph: " + (numEdges / 2));
+        }
+        graph.numClauses = binaries.size();
+        int numLiterals = 2 * graph.symbols.length;
+        graph.start = new int[numLiterals + 1];
+        graph.targets = new int[(int)numEdges];
+        int[] next = null; //null while counting, then the next free place in the edges of each literal
+        for(int pass = 0; pass < 2; pass ++){
+            for(int i = 0; i < binaries.size(); i ++){
+                c = binaries.get(i);
+                graph.addClause(graph.literalOf(c.getLiteral(0)), graph.literalOf(c.getLiteral(1)), next);
+            }
+            if(pass == 0){
+                for(int i = 0; i < numLiterals; i ++){
+                    graph.start[i + 1] += graph.start[i];
+                }
+                next = Arrays.copyOf(graph.start, numLiterals);
+            }
+        }
+        graph.compact();
+        return graph;
+    }
+
+    /**
+     * counts or places the two edges of a clause "a b": -a -> b and -b -> a.
+     * @param first the first literal of the clause
+     * @param second the second literal of the clause
+     * @param next null to only count the edges, or the next free place in the edges of each literal
+     */
+    private void addClause(int first, int second, int[] next){
+        if(next == null){
+            start[(first ^ 1) + 1] ++;
+            start[(second ^ 1) + 1] ++;
+        }
+        else{
+            targets[next[first ^ 1] ++] = second;
+            targets[next[second ^ 1] ++] = first;
+        }
+    }
+
+    /**
+     * constructor that numbers the symbols.
+     * @param symbols every symbol used by the clauses
+     */
+    private BinaryImplications(ArrayList<Symbol> symbols){
+        this.symbols = symbols.toArray(new Symbol[0]);
+        int maxName = 0;
+        for(int i = 0; i < this.symbols.length; i ++){
+            maxName = Math.max(maxName, this.symbols[i].getName());
+        }
+        numberOf = new int[maxName + 1];
+        Arrays.fill(numberOf, -1);
+        for(int i = 0; i < this.symbols.length; i ++){
+            numberOf[this.symbols[i].getName()] = i;
+        }
+    }
+
+    /**
+     * numbers a literal of a clause.
+     * @param l the literal
+     * @return 2 * symbol, plus 1 if the literal is negated
+     */
+    private int literalOf(Literal l){
+        return 2 * numberOf[l.getSym().getName()] + (l.isFlipped() ? 1 : 0);
+    }
+
+    /**
+     * numbers a literal read from a file.
+     * @param literal the atom number, negative if the atom is flipped
+     * @return 2 * symbol, plus 1 if the literal is negated
+     */
+    private int literalOfAtom(int literal){
+        return 2 * numberOf[Math.abs(literal)] + (literal < 0 ? 1 : 0);
+    }
+
+    /**
+     * numbers the literal that is true for a symbol that has a value.
+     * @param s the symbol
+     * @return 2 * symbol, plus 1 if the symbol is false
+     */
+    private int trueLiteralOf(Symbol s){
+        return 2 * numberOf[s.getName()] + (s.getValue() ? 0 : 1);
+    }
+
+    /**
+     * finds the first edge leaving a literal.
+     * @param literal the literal
+     * @return the number of it's first edge
+     */
+    private long firstEdge(int literal){
+        if(mapped == null){
+            return start[literal];
+        }
+        return mappedStart[literal];
+    }
+
+    /**
+     * finds the end of the edges leaving a literal.
+     * @param literal the literal
+     * @return the number of the first edge after the literal's edges
+     */
+    private long endEdge(int literal){
+        if(mapped == null){
+            return start[literal + 1];
+        }
+        return mappedStart[literal + 1];
+    }
+
+    /**
+     * finds the literal an edge reaches.
+     * @param edge the number of the edge
+     * @return the literal
+     */
+    private int target(long edge){
+        if(mapped == null){
+            return targets[(int)edge];
+        }
+        return literalOfAtom(mapped.getEdgeTarget(edge));
+    }
+
+    /**
+     * tells whether a literal is true.
+     * @param literal the literal
+     * @return true if it's symbol has the value that makes it true
+     */
+    private boolean isTrue(int literal){
+        Boolean value = symbols[literal >> 1].getValue();
+        return value != null && value == ((literal & 1) == 0);
+    }
+
+    /**
+     * fills start and targets from a list of edges.
+     * @param tails the literal each edge leaves
+     * @param heads the literal each edge reaches
+     * @param numEdges number of edges in the lists
+     */
+    private void build(int[] tails, int[] heads, int numEdges){
+        int numLiterals = 2 * symbols.length;
+        start = new int[numLiterals + 1];
+        for(int i = 0; i < numEdges; i ++){
+            start[tails[i] + 1] ++;
+        }
+        for(int i = 0; i < numLiterals; i ++){
+            start[i + 1] += start[i];
+        }
+        int[] next = Arrays.copyOf(start, numLiterals);
+        targets = new int[numEdges];
+        for(int i = 0; i < numEdges; i ++){
+            targets[next[tails[i]] ++] = heads[i];
+        }
+        compact();
+    }
+
+    /**
+     * leaves repeated edges and edges from a literal to itself out of start and targets.
+     */
+    private void compact(){
+        int numLiterals = 2 * symbols.length;
+        int[] seen = new int[numLiterals]; //seen[l] is the literal + 1 whose edges last reached l
+        int size = 0;
+        int from;
+        for(int literal = 0; literal < numLiterals; literal ++){
+            from = start[literal];
+            start[literal] = size;
+            for(int i = from; i < start[literal + 1]; i ++){
+                if(targets[i] != literal && seen[targets[i]] != literal + 1){
+                    seen[targets[i]] = literal + 1;
+                    targets[size ++] = targets[i];
+                }
+            }
+        }
+        start[numLiterals] = size;
+        if(size < targets.length){
+            targets = Arrays.copyOf(targets, size);
+        }
+    }
+
+    /**
+     * finds the literals that imply each other, and replaces the edges between them with edges
+     * to and from one representative.  Every edge a -> b becomes rep(a) -> rep(b), and each
+     * literal is linked both ways to it's representative.  The representative is the literal
+     * of the lowest numbered symbol in the group, so the representative of -a is always the
+     * negation of the representative of a, and the graph keeps an edge -b -> -a for every a -> b.
+     * @return the number of literals linked to a representative other than themselves, or -1 if
+     *         a literal and it's negation imply each other, in which case there is no solution
+     * @throws UnsupportedOperationException if the edges are in a mapped input file
+     */
+    public int mergeEquivalences(){
+        if(mapped != null){
+            throw new UnsupportedOperationException("The implication graph of a mapped input can not be rebuilt");
+        }
+        int numLiterals = 2 * symbols.length;
+        int[] component = new int[numLiterals]; //component each literal belongs to
+        int numComponents = findComponents(component);
+        int[] representative = new int[numComponents];
+        Arrays.fill(representative, -1);
+        for(int literal = 0; literal < numLiterals; literal ++){ //literals are visited in symbol order, so the first one seen is the lowest
+            if(component[literal] == component[literal ^ 1]){
+                contradictory = true;
+                return -1;
+            }
+            if(representative[component[literal]] < 0){
+                representative[component[literal]] = literal;
+            }
+        }
+
+        int merged = 0;
+        for(int literal = 0; literal < numLiterals; literal ++){
+            if(representative[component[literal]] != literal){
+                merged ++;
+            }
+        }
+        if(merged == 0){
+            return 0;
+        }
+        int[] tails = new int[targets.length + 2 * merged];
+        int[] heads = new int[targets.length + 2 * merged];
+        int numEdges = 0;
+        int rep;
+        for(int literal = 0; literal < numLiterals; literal ++){
+            rep = representative[component[literal]];
+            for(int i = start[literal]; i < start[literal + 1]; i ++){
+                tails[numEdges] = rep;
+                heads[numEdges ++] = representative[component[targets[i]]];
+            }
+            if(rep != literal){
+                tails[numEdges] = literal;
+                heads[numEdges ++] = rep;
+                tails[numEdges] = rep;
+                heads[numEdges ++] = literal;
+            }
+        }
+        build(tails, heads, numEdges);
+        return merged;
+    }
+
+    /**
+     * numbers the strongly connected components of the graph with Tarjan's algorithm, using an
+     * explicit stack since the graph can be far deeper than the call stack.
+     * @param component array filled with the component of each literal
+     * @return the number of components
+     */
+    private int findComponents(int[] component){
+        int numLiterals = 2 * symbols.length;
+        int[] index = new int[numLiterals]; //order each literal was first visited in, plus 1, or 0 if not yet visited
+        int[] lowest = new int[numLiterals]; //lowest visit order reachable while the literal is on the stack
+        boolean[] onStack = new boolean[numLiterals];
+        int[] stack = new int[numLiterals]; //literals whose component is not yet known
+        int stackSize = 0;
+        int[] path = new int[numLiterals]; //the depth first search path
+        int[] edge = new int[numLiterals]; //next edge to follow from each literal on the path
+        int depth;
+        int visited = 0;
+        int numComponents = 0;
+        int literal;
+        int next;
+        int member;
+        for(int root = 0; root < numLiterals; root ++){
+            if(index[root] != 0){
+                continue;
+            }
+            depth = 0;
+            path[0] = root;
+            edge[root] = start[root];
+            index[root] = lowest[root] = ++ visited;
+            stack[stackSize ++] = root;
+            onStack[root] = true;
+            while(depth >= 0){
+                literal = path[depth];
+                if(edge[literal] < start[literal + 1]){
+                    next = targets[edge[literal] ++];
+                    if(index[next] == 0){ //go deeper
+                        index[next] = lowest[next] = ++ visited;
+                        edge[next] = start[next];
+                        stack[stackSize ++] = next;
+                        onStack[next] = true;
+                        path[++ depth] = next;
+                    }
+                    else if(onStack[next]){
+                        lowest[literal] = Math.min(lowest[literal], index[next]);
+                    }
+                    continue;
+                }
+                if(lowest[literal] == index[literal]){ //literal is the root of a component
+                    do{
+                        member = stack[-- stackSize];
+                        onStack[member] = false;
+                        component[member] = numComponents;
+                    } while(member != literal);
+                    numComponents ++;
+                }
+                depth --;
+                if(depth >= 0){
+                    lowest[path[depth]] = Math.min(lowest[path[depth]], lowest[literal]);
+                }
+            }
+        }
+        return numComponents;
+    }
+
+    /**
+     * removes each edge a -> c for which edges a -> b and b -> c are also present, together with
+     * it's partner -c -> -a.  Edges are removed one at a time, and only while the two step path
+     * around them is still there, so everything that was reachable stays reachable.
+     * @return the number of edges removed
+     * @throws UnsupportedOperationException if the edges are in a mapped input file
+     */
+    public int reduce(){
+        if(mapped != null){
+            throw new UnsupportedOperationException("The implication graph of a mapped input can not be rebuilt");
+        }
+        int numLiterals = 2 * symbols.length;
+        boolean[] removed = new boolean[targets.length];
+        int[] mark = new int[numLiterals]; //mark[c] is the position of edge a -> c plus 1, while a is being looked at
+        int removedEdges = 0;
+        int middle;
+        int end;
+        int partner;
+        for(int literal = 0; literal < numLiterals; literal ++){
+            for(int i = start[literal]; i < start[literal + 1]; i ++){
+                if(!removed[i]){
+                    mark[targets[i]] = i + 1;
+                }
+            }
+            for(int i = start[literal]; i < start[literal + 1]; i ++){
+                if(removed[i]){
+                    continue;
+                }
+                middle = targets[i];
+                for(int j = start[middle]; j < start[middle + 1]; j ++){
+                    end = targets[j];
+                    if(removed[j] || end == literal || mark[end] == 0){
+                        continue;
+                    }
+                    removed[mark[end] - 1] = true; //a -> c goes, and so does -c -> -a
+                    removedEdges ++;
+                    partner = findEdge(end ^ 1, literal ^ 1);
+                    if(!removed[partner]){
+                        removed[partner] = true;
+                        removedEdges ++;
+                    }
+                    mark[end] = 0;
+                }
+            }
+            for(int i = start[literal]; i < start[literal + 1]; i ++){
+                mark[targets[i]] = 0;
+            }
+        }
+
+        int[] tails = new int[targets.length - removedEdges];
+        int[] heads = new int[targets.length - removedEdges];
+        int numEdges = 0;
+        for(int literal = 0; literal < numLiterals; literal ++){
+            for(int i = start[literal]; i < start[literal + 1]; i ++){
+                if(!removed[i]){
+                    tails[numEdges] = literal;
+                    heads[numEdges ++] = targets[i];
+                }
+            }
+        }
+        build(tails, heads, numEdges);
+        return removedEdges;
+    }
+
+    /**
+     * finds the position of an edge in targets.
+     * @param from the literal the edge leaves
+     * @param to the literal the edge reaches
+     * @return the edge's position
+     */
+    private int findEdge(int from, int to){
+        for(int i = start[from]; i < start[from + 1]; i ++){
+            if(targets[i] == to){
+                return i;
+            }
+        }
+        throw new IllegalStateException("Edge " + from + " -> " + to + " has no partner");
+    }
+
+    /**
+     * gives a value to every symbol that the graph forces, following the edges of each symbol
+     * in the model from the first one whose edges have not been followed yet.  Forced symbols
+     * are added to the model and to the given list.
+     * @param model the model of the search
+     * @param forced list to add the forced symbols to
+     * @return false if a literal that must be true is already false
+     */
+    public boolean propagate(Model model, ArrayList<Symbol> forced){
+        int literal;
+        int target;
+        Symbol s;
+        Boolean value;
+        while(head < model.size()){
+            s = model.get(head ++);
+            if(s.getName() >= numberOf.length || numberOf[s.getName()] < 0){
+                continue;
+            }
+            literal = trueLiteralOf(s);
+            for(long i = firstEdge(literal), end = endEdge(literal); i < end; i ++){
+                target = target(i);
+                s = symbols[target >> 1];
+                value = s.getValue();
+                if(value == null){
+                    model.add(s, (target & 1) == 0);
+                    forced.add(s);
+                }
+                else if(value != ((target & 1) == 0)){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * moves the propagation position back when symbols are taken out of the model, so that
+     * symbols given a value in their place have their edges followed.
+     * @param size number of symbols left in the model
+     */
+    public void backtrack(int size){
+        head = Math.min(head, size);
+    }
+
+    /**
+     * checks whether any two literal clause is false: a true literal whose edge reaches a false one.
+     * @param model the model of the search
+     * @return true if a clause is false
+     */
+    public boolean hasConflict(Model model){
+        Symbol s;
+        int literal;
+        int target;
+        for(int i = 0; i < model.size(); i ++){
+            s = model.get(i);
+            if(s.getName() >= numberOf.length || numberOf[s.getName()] < 0){
+                continue;
+            }
+            literal = trueLiteralOf(s);
+            for(long j = firstEdge(literal), end = endEdge(literal); j < end; j ++){
+                target = target(j);
+                if(symbols[target >> 1].getValue() != null && !isTrue(target)){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * checks whether every two literal clause is true.  For each edge a -> b, a must be false or b true.
+     * @return true if every clause is true
+     */
+    public boolean allSatisfied(){
+        long end;
+        for(int literal = 0; literal < 2 * symbols.length; literal ++){
+            end = endEdge(literal);
+            if(firstEdge(literal) == end || isTrue(literal ^ 1)){
+                continue;
+            }
+            for(long i = firstEdge(literal); i < end; i ++){
+                if(!isTrue(target(i))){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * checks whether a literal of an unassigned symbol is in a two literal clause that is not yet
+     * true.  The clause "l b" is the edge -l -> b, so it is enough to look at the edges of -l.
+     * @param s the symbol
+     * @param flipped true for the symbol's negation
+     * @return true if the literal appears in such a clause
+     */
+    public boolean occursOpen(Symbol s, boolean flipped){
+        if(s.getName() >= numberOf.length || numberOf[s.getName()] < 0){
+            return false;
+        }
+        int negation = 2 * numberOf[s.getName()] + (flipped ? 0 : 1);
+        for(long i = firstEdge(negation), end = endEdge(negation); i < end; i ++){
+            if(!isTrue(target(i))){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * getter for the number of two literal clauses in the graph, before any were merged or removed
+     * @return the number of clauses
+     */
+    public long getNumClauses(){
+        return numClauses;
+    }
+
+    /**
+     * getter for the number of edges in the graph
+     * @return the number of edges
+     */
+    public long getNumEdges(){
+        return mapped == null ? targets.length : 2 * mapped.getNumBinary();
+    }
+
+    /**
+     * tells whether mergeEquivalences() found that there is no solution
+     * @return true if a literal and it's negation imply each other
+     */
+    public boolean isContradictory(){
+        return contradictory;
+    }
+}
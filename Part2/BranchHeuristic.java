@@ -0,0 +1,169 @@
+import java.util.*;
+/**
+ * This class chooses the symbol DPLL guesses next, when there is no pure symbol or unit clause.
+ * Three ways of choosing are known, selected with --branch=name:
+ *
+ *   order       the first unassigned symbol in DPLL's list (the original behaviour)
+ *   occurrence  the unassigned symbol that appears in the most clauses that are not yet true
+ *   path        the next step of the path, read from the footer: the first position that has
+ *               no vertex yet is filled, choosing only among successors of the vertex at the
+ *               position before it, and among those the one with the fewest unvisited
+ *               successors of it's own (Warnsdorff's rule for knight's tours).  The first
+ *               position goes to the vertex with the fewest predecessors, since a vertex that
+ *               cannot be entered has to start the path.
+ *
+ * The guessed symbol is tried with it's preferred value first (see Symbol.getPhase()), which
+ * is true unless something else asked otherwise, so the path heuristic grows the path one
+ * vertex at a time with every clause propagated in between.  If it has no candidate, such as
+ * when every successor has already been ruled out, it falls back to the order heuristic and
+ * propagation finds the conflict.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class BranchHeuristic{
+    private String name; //which heuristic is used
+    private GraphFooter graph; //graph behind the clauses, used by the path heuristic
+    private int[] occurrences = new int[0]; //occurrences[atom] counts the not yet true clauses holding the atom
+
+    /**
+     * constructor that selects a heuristic.
+     * @param name one of order, occurrence or path
+     * @param graph the graph behind the clauses; only needed for path
+     * @throws IllegalArgumentException if the name is not a known heuristic
+     */
+    public BranchHeuristic(String name, GraphFooter graph){
+        if(!isKnown(name)){
+            throw new IllegalArgumentException("Unknown branching heuristic " + name);
+        }
+        this.name = name;
+        this.graph = graph;
+    }
+
+    /**
+     * checks whether a name is one of the known heuristics.
+     * @param name name of the heuristic
+     * @return true for order, occurrence and path
+     */
+    public static boolean isKnown(String name){
+        return name.equals("order") || name.equals("occurrence") || name.equals("path");
+    }
+
+    /**
+     * checks whether a heuristic needs the graph from the footer.
+     * @param name name of the heuristic
+     * @return true for the path heuristic
+     */
+    public static boolean needsGraph(String name){
+        return name.equals("path");
+    }
+
+    /**
+     * chooses the next symbol to guess.
+     * @param unassigned the symbols that have no value yet; must not be empty
+     * @param clauses every clause, as last updated by the model
+     * @return the symbol to guess
+     */
+    public Symbol choose(ArrayList<Symbol> unassigned, ArrayList<Clause> clauses){
+        Symbol chosen = null;
+        if(name.equals("occurrence")){
+            chosen = mostOccurring(unassigned, clauses);
+        }
+        else if(name.equals("path")){
+            chosen = nextStep();
+        }
+        return chosen == null ? unassigned.get(0) : chosen;
+    }
+
+    /**
+     * finds the unassigned symbol that appears in the most clauses that are not yet true.
+     * @param unassigned the symbols that have no value yet
+     * @param clauses every clause
+     * @return the most frequent symbol, or null if no open clause holds an unassigned symbol
+     */
+    private Symbol mostOccurring(ArrayList<Symbol> unassigned, ArrayList<Clause> clauses){
+        int maxName = 0;
+        for(int i = 0; i < unassigned.size(); i ++){
+            maxName = Math.max(maxName, unassigned.get(i).getName());
+        }
+        if(occurrences.length <= maxName){
+            occurrences = new int[maxName + 1];
+        }
+        Clause c;
+        Symbol s;
+        for(int i = 0; i < clauses.size(); i ++){
+            c = clauses.get(i);
+            if(c.isSatisfied() != null){ //only clauses that are still open matter
+                continue;
+            }
+            for(int j = 0; j < c.size(); j ++){
+                s = c.getLiteral(j).getSym();
+                if(s.getValue() == null && s.getName() <= maxName){
+                    occurrences[s.getName()] ++;
+                }
+            }
+        }
+        Symbol best = null;
+        int bestCount = 0;
+        for(int i = 0; i < unassigned.size(); i ++){
+            s = unassigned.get(i);
+            if(occurrences[s.getName()] > bestCount){
+                bestCount = occurrences[s.getName()];
+                best = s;
+            }
+        }
+        Arrays.fill(occurrences, 0);
+        return best;
+    }
+
+    /**
+     * finds the symbol that extends the path by one vertex, as described above.
+     * @return the symbol for the chosen vertex at the first open position, or null if there is no candidate
+     */
+    private Symbol nextStep(){
+        int n = graph.getNumVertices();
+        boolean[] visited = new boolean[n];
+        int[] atTime = new int[n + 1]; //vertex at each position, or -1 if the position is open
+        Arrays.fill(atTime, -1);
+        for(int vertex = 0; vertex < n; vertex ++){
+            for(int time = 1; time <= n; time ++){
+                if(graph.isTrue(vertex, time)){
+                    visited[vertex] = true;
+                    atTime[time] = vertex;
+                }
+            }
+        }
+        int time = 1;
+        while(time <= n && atTime[time] != -1){
+            time ++;
+        }
+        if(time > n){
+            return null;
+        }
+
+        int previous = time == 1 ? -1 : atTime[time - 1];
+        Symbol best = null;
+        int bestScore = Integer.MAX_VALUE;
+        int score;
+        Symbol s;
+        for(int vertex = 0; vertex < n; vertex ++){
+            s = graph.getSymbol(vertex, time);
+            if(visited[vertex] || s == null || s.getValue() != null){
+                continue;
+            }
+            if(previous != -1 && !graph.hasEdge(previous, vertex)){
+                continue;
+            }
+            score = 0;
+            for(int other = 0; other < n; other ++){ //count unvisited successors, or predecessors for the first position
+                if(other != vertex && !visited[other] && (time == 1 ? graph.hasEdge(other, vertex) : graph.hasEdge(vertex, other))){
+                    score ++;
+                }
+            }
+            if(score < bestScore){
+                bestScore = score;
+                best = s;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.*;
+/**
+ * This class encodes a cardinality constraint over a list of symbols: either at most one
+ * of them may be true, or exactly one of them must be true.  It stands in for the clause
+ * saying at least one symbol is true together with the clauses forbidding every pair of
+ * them from both being true, which takes a number of clauses that grows with the square
+ * of the number of symbols.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class CardinalityConstraint{
+    private Symbol[] symbols; //the symbols the constraint is over
+    private boolean exactlyOne; //true if one symbol must be true, false if none may be
+    private Boolean isSatisfied; //true if the constraint holds, false if it is broken, null if it is yet to be determined
+
+    /**
+     * constructor for a cardinality constraint
+     * @param symbols the symbols the constraint is over
+     * @param exactlyOne true for exactly one, false for at most one
+     */
+    public CardinalityConstraint(Symbol[] symbols, boolean exactlyOne){
+        this.symbols = symbols;
+        this.exactlyOne = exactlyOne;
+    }
+
+    /**
+     * tells which kind of constraint this is
+     * @return true for exactly one, false for at most one
+     */
+    public boolean isExactlyOne(){
+        return exactlyOne;
+    }
+
+    /**
+     * getter for the symbols the constraint is over.  The array is not copied,
+     * so it should not be changed by the caller.
+     * @return the symbols of the constraint
+     */
+    public Symbol[] getSymbols(){
+        return symbols;
+    }
+
+    /**
+     * a getter that denotes if the constraint is satisfied or not.
+     * @return true if it holds, false if it is broken, or null otherwise.
+     */
+    public Boolean isSatisfied(){
+        return isSatisfied;
+    }
+
+    /**
+     * this method should be called anytime that a truth value is changed, in the same
+     * way as Clause.updateClause().  The constraint is broken if two symbols are true, or
+     * if it is exactly one and every symbol is false.  It holds if no more than one symbol is
+     * true and, for exactly one, one symbol is true.  Symbols that are never assigned are
+     * written as false, so at most one holds as long as no two symbols are true.
+     * @return isSatisfied after it has been updated by this method.
+     */
+    public Boolean updateConstraint(){
+        int numTrue = 0;
+        int numUnknown = 0;
+        Boolean value;
+        for(int i = 0; i < symbols.length; i ++){
+            value = symbols[i].getValue();
+            if(value == null){
+                numUnknown ++;
+            }
+            else if(value){
+                numTrue ++;
+            }
+        }
+        if(numTrue > 1 || (exactlyOne && numTrue == 0 && numUnknown == 0)){
+            isSatisfied = false;
+        }
+        else if(numTrue == 1 || !exactlyOne){
+            isSatisfied = true;
+        }
+        else{
+            isSatisfied = null;
+        }
+        return isSatisfied;
+    }
+
+    /**
+     * finds the symbols whose values are forced by this constraint.  When one symbol is true,
+     * every other symbol that has no value must be false.  When it is exactly one, no symbol is
+     * true, and only one has no value, that symbol must be true.  The forced symbols are added to
+     * the list, and their values to the matching list.
+     * @param forced list to add the forced symbols to
+     * @param values list to add the forced values to
+     */
+    public void getForced(ArrayList<Symbol> forced, ArrayList<Boolean> values){
+        Symbol trueSymbol = null;
+        Symbol lastUnknown = null;
+        int numUnknown = 0;
+        Boolean value;
+        for(int i = 0; i < symbols.length; i ++){
+            value = symbols[i].getValue();
+            if(value == null){
+                numUnknown ++;
+                lastUnknown = symbols[i];
+            }
+            else if(value){
+                trueSymbol = symbols[i];
+            }
+        }
+        if(numUnknown == 0){
+            return;
+        }
+        if(trueSymbol != null){ //one symbol is true: all others go false in one step
+            for(int i = 0; i < symbols.length; i ++){
+                if(symbols[i].getValue() == null){
+                    forced.add(symbols[i]);
+                    values.add(false);
+                }
+            }
+        }
+        else if(exactlyOne && numUnknown == 1){ //the only symbol left must be the true one
+            forced.add(lastUnknown);
+            values.add(true);
+        }
+    }
+
+    /**
+     * returns a string representation of the constraint: "exactly one" or "at most one"
+     * followed by the names of it's symbols.
+     * @return a string representation of the constraint.
+     */
+    public String toString(){
+        StringBuilder build = new StringBuilder(symbols.length * 4 + 12);
+        build.append(exactlyOne ? "exactly one:" : "at most one:");
+        for(int i = 0; i < symbols.length; i ++){
+            build.append(" " + symbols[i].getName());
+        }
+        return build.toString();
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.*;
+/**
+ * This class looks through a list of clauses for groups that together say exactly one of
+ * some symbols is true: one clause listing every symbol, plus a two literal clause
+ * "-a -b" for every pair of them.  Part 1 writes these groups for each position
+ * (vertexAtAllTimes with oneVerticesPerTime) and for each vertex (allVerticesTraversed with
+ * singleTraversal).  Each group found is replaced with a single CardinalityConstraint.
+ *
+ * The "-a -b" clauses left over are then searched for cliques: sets of three or more symbols
+ * with such a clause for every pair, which say at most one of them is true even without a
+ * clause listing them all.  These come from singleTraversal when the matching
+ * allVerticesTraversed clause is missing, and from the illegal path clauses, where a vertex
+ * at one position and every vertex at the position before it that has no edge to it form one.
+ * Each clique is replaced with an at most one constraint.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class CardinalityDetector{
+    /**
+     * finds every exactly one group and every at most one clique in the clauses, removes the
+     * clauses that make them up, and returns the constraints that replace them.
+     * @param clauses the clause list to search.  Clauses belonging to a group are removed from it.
+     * @return a list of the constraints that were found
+     */
+    public static ArrayList<CardinalityConstraint> collapse(ArrayList<Clause> clauses){
+        HashSet<Long> negativePairs = new HashSet<Long>(); //every "-a -b" clause, as a pair of symbol names
+        Clause current;
+        for(int i = 0; i < clauses.size(); i ++){
+            current = clauses.get(i);
+            if(current.size() == 2 && current.getLiteral(0).isFlipped() && current.getLiteral(1).isFlipped()){
+                negativePairs.add(pairKey(current.getLiteral(0).getSym(), current.getLiteral(1).getSym()));
+            }
+        }
+
+        ArrayList<CardinalityConstraint> constraints = new ArrayList<CardinalityConstraint>();
+        HashSet<Long> covered = new HashSet<Long>(); //pairs that a constraint now stands in for
+        boolean[] replaced = new boolean[clauses.size()]; //long clauses that a constraint now stands in for
+        Symbol[] group;
+        boolean isGroup;
+        for(int i = 0; i < clauses.size(); i ++){
+            current = clauses.get(i);
+            if(current.size() < 3){
+                continue;
+            }
+            group = new Symbol[current.size()];
+            isGroup = true;
+            for(int j = 0; j < group.length && isGroup; j ++){
+                isGroup = !current.getLiteral(j).isFlipped();
+                group[j] = current.getLiteral(j).getSym();
+            }
+            for(int j = 0; j < group.length && isGroup; j ++){ //every pair must have it's "-a -b" clause
+                for(int k = j + 1; k < group.length && isGroup; k ++){
+                    isGroup = negativePairs.contains(pairKey(group[j], group[k]));
+                }
+            }
+            if(!isGroup){
+                continue;
+            }
+            for(int j = 0; j < group.length; j ++){
+                for(int k = j + 1; k < group.length; k ++){
+                    covered.add(pairKey(group[j], group[k]));
+                }
+            }
+            replaced[i] = true;
+            constraints.add(new CardinalityConstraint(group, true));
+        }
+
+        HashMap<Symbol, ArrayList<Symbol>> partners = new HashMap<Symbol, ArrayList<Symbol>>(); //for each symbol, every symbol it shares a "-a -b" clause with
+        for(int i = 0; i < clauses.size(); i ++){
+            current = clauses.get(i);
+            if(current.size() == 2 && current.getLiteral(0).isFlipped() && current.getLiteral(1).isFlipped()){
+                addPartner(partners, current.getLiteral(0).getSym(), current.getLiteral(1).getSym());
+                addPartner(partners, current.getLiteral(1).getSym(), current.getLiteral(0).getSym());
+            }
+        }
+        ArrayList<Symbol> clique = new ArrayList<Symbol>();
+        ArrayList<Symbol> candidates;
+        Symbol a;
+        Symbol b;
+        for(int i = 0; i < clauses.size(); i ++){ //grow a clique from every pair that no constraint stands in for yet
+            current = clauses.get(i);
+            if(current.size() != 2 || !current.getLiteral(0).isFlipped() || !current.getLiteral(1).isFlipped()){
+                continue;
+            }
+            a = current.getLiteral(0).getSym();
+            b = current.getLiteral(1).getSym();
+            if(a == b || covered.contains(pairKey(a, b))){
+                continue;
+            }
+            clique.clear();
+            clique.add(a);
+            clique.add(b);
+            candidates = partners.get(a);
+            for(int j = 0; j < candidates.size(); j ++){ //add every partner of a that is a partner of the whole clique so far
+                isGroup = !clique.contains(candidates.get(j));
+                for(int k = 1; k < clique.size() && isGroup; k ++){
+                    isGroup = negativePairs.contains(pairKey(candidates.get(j), clique.get(k)));
+                }
+                if(isGroup){
+                    clique.add(candidates.get(j));
+                }
+            }
+            if(clique.size() < 3){ //a single pair is already as small as a clause
+                continue;
+            }
+            for(int j = 0; j < clique.size(); j ++){
+                for(int k = j + 1; k < clique.size(); k ++){
+                    covered.add(pairKey(clique.get(j), clique.get(k)));
+                }
+            }
+            constraints.add(new CardinalityConstraint(clique.toArray(new Symbol[0]), false));
+        }
+        if(constraints.isEmpty()){
+            return constraints;
+        }
+
+        ArrayList<Clause> kept = new ArrayList<Clause>(clauses.size() - covered.size());
+        for(int i = 0; i < clauses.size(); i ++){
+            current = clauses.get(i);
+            if(replaced[i]){
+                continue;
+            }
+            if(current.size() == 2 && current.getLiteral(0).isFlipped() && current.getLiteral(1).isFlipped()
+               && covered.contains(pairKey(current.getLiteral(0).getSym(), current.getLiteral(1).getSym()))){
+                continue;
+            }
+            kept.add(current);
+        }
+        clauses.clear();
+        clauses.addAll(kept);
+        return constraints;
+    }
+
+    /**
+     * adds a symbol to the list of partners of another, creating the list if needed.
+     * @param partners the partner lists, by symbol
+     * @param s the symbol whose list is added to
+     * @param partner the symbol to add
+     */
+    private static void addPartner(HashMap<Symbol, ArrayList<Symbol>> partners, Symbol s, Symbol partner){
+        ArrayList<Symbol> list = partners.get(s);
+        if(list == null){
+            list = new ArrayList<Symbol>();
+            partners.put(s, list);
+        }
+        list.add(partner);
+    }
+
+    /**
+     * combines two symbols into one number that is the same no matter their order.
+     * @param a the first symbol
+     * @param b the second symbol
+     * @return a key holding the smaller name in the high bits and the larger in the low bits
+     */
+    private static long pairKey(Symbol a, Symbol b){
+        long low = Math.min(a.getName(), b.getName());
+        long high = Math.max(a.getName(), b.getName());
+        return (low << 32) | high;
+    }
+}
@@ -0,0 +1,264 @@
+import java.util.*;
+import java.io.*;
+/**
+ * This class holds a snapshot of a DPLL search, so that a long search can be continued after the
+ * program is stopped.  DPLL works through the possible assignments depth first, so the symbols
+ * assigned so far (the trail) say exactly where it is: for every guess on the trail whose first
+ * value has already failed, everything under that first value has been searched and can be
+ * skipped.  The snapshot holds:
+ *
+ *   the trail, in the order the symbols were assigned, marking the guesses whose other value
+ *   has not been tried yet
+ *   the unassigned symbols, in the order DPLL will consider them
+ *   the symbols whose preferred value (see Symbol.getPhase()) is false
+ *   the clauses learned during the search
+ *
+ * along with the number of symbols and clauses and a hash of the footer, so that a snapshot is
+ * never used with a different input.  It is written as text, one kind of item per line:
+ *
+ *   v 1 symbols clauses footerHash   version and the input it belongs to
+ *   t 5 -12 3?                       the trail as atoms, negated if false, with ? after a guess
+ *                                    whose other value has not been tried
+ *   o 7 8 9                          the unassigned symbols
+ *   p 4                              the symbols whose preferred value is false
+ *   l -3 -10                         one line for each learned clause
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class Checkpoint{
+    private int numSymbols; //number of symbols in the input
+    private int numClauses; //number of clauses before any were learned
+    private int footerHash; //hash of the footer of the input
+    private int[] trail; //assigned symbols in order, negated if false
+    private boolean[] untried; //for each trail entry, true if it is a guess whose other value has not been tried
+    private int[] order; //unassigned symbols, in order
+    private int[] falsePhases; //symbols whose preferred value is false
+    private int[][] learned; //learned clauses, as signed atoms
+
+    /**
+     * constructor that takes a snapshot of a search.  It must be called by the thread running the search.
+     * @param numSymbols number of symbols in the input
+     * @param numClauses number of clauses before any were learned
+     * @param footer the footer of the input
+     * @param model the model of the search
+     * @param unassigned the unassigned symbols, in order
+     * @param clauses every clause; those from numClauses on were learned
+     */
+    public Checkpoint(int numSymbols, int numClauses, String footer, Model model, ArrayList<Symbol> unassigned, ArrayList<Clause> clauses){
+        this.numSymbols = numSymbols;
+        this.numClauses = numClauses;
+        footerHash = footer.hashCode();
+        trail = new int[model.size()];
+        untried = new boolean[model.size()];
+        ArrayList<Integer> phases = new ArrayList<Integer>();
+        Symbol s;
+        for(int i = 0; i < trail.length; i ++){
+            s = model.get(i);
+            trail[i] = s.getValue() ? s.getName() : -s.getName();
+            untried[i] = model.hasUntriedValue(i);
+            if(!s.getPhase()){
+                phases.add(s.getName());
+            }
+        }
+        order = new int[unassigned.size()];
+        for(int i = 0; i < order.length; i ++){
+            order[i] = unassigned.get(i).getName();
+            if(!unassigned.get(i).getPhase()){
+                phases.add(order[i]);
+            }
+        }
+        falsePhases = new int[phases.size()];
+        for(int i = 0; i < falsePhases.length; i ++){
+            falsePhases[i] = phases.get(i);
+        }
+        learned = new int[Math.max(0, clauses.size() - numClauses)][];
+        Clause c;
+        Literal l;
+        for(int i = 0; i < learned.length; i ++){
+            c = clauses.get(numClauses + i);
+            learned[i] = new int[c.size()];
+            for(int j = 0; j < c.size(); j ++){
+                l = c.getLiteral(j);
+                learned[i][j] = l.isFlipped() ? -l.getSym().getName() : l.getSym().getName();
+            }
+        }
+    }
+
+    /**
+     * constructor used when reading a snapshot back.
+     */
+    private Checkpoint(){
+    }
+
+    /**
+     * checks whether this snapshot was taken from the same input.
+     * @param numSymbols number of symbols in the input
+     * @param numClauses number of clauses before any were learned
+     * @param footer the footer of the input
+     * @return true if all three match
+     */
+    public boolean matches(int numSymbols, int numClauses, String footer){
+        return this.numSymbols == numSymbols && this.numClauses == numClauses && footerHash == footer.hashCode();
+    }
+
+    /**
+     * writes the snapshot, replacing the file only once the new one is completely on disk, so a
+     * program stopped part way through writing leaves the last snapshot as it was.
+     * @param f the file to write
+     * @throws IOException if the file could not be written
+     */
+    public void write(File f) throws IOException{
+        File temp = new File(f.getPath() + ".tmp");
+        FileOutputStream stream = new FileOutputStream(temp, false);
+        Writer output = new BufferedWriter(new OutputStreamWriter(stream, "UTF-8"), 1 << 16);
+        output.write("v 1 " + numSymbols + " " + numClauses + " " + footerHash + "\n");
+        output.write("t");
+        for(int i = 0; i < trail.length; i ++){
+            output.write(" " + trail[i] + (untried[i] ? "?" : ""));
+        }
+        output.write("\n");
+        writeLine(output, 'o', order);
+        writeLine(output, 'p', falsePhases);
+        for(int i = 0; i < learned.length; i ++){
+            writeLine(output, 'l', learned[i]);
+        }
+        output.flush();
+        stream.getFD().sync();
+        output.close();
+        if(!temp.renameTo(f)){
+            throw new IOException("Could not replace " + f);
+        }
+    }
+
+    /**
+     * writes one line of numbers.
+     * @param output the writer to write to
+     * @param kind the letter starting the line
+     * @param numbers the numbers on the line
+     * @throws IOException if the writer could not be written to
+     */
+    private static void writeLine(Writer output, char kind, int[] numbers) throws IOException{
+        StringBuilder build = new StringBuilder(numbers.length * 5 + 2);
+        build.append(kind);
+        for(int i = 0; i < numbers.length; i ++){
+            build.append(' ').append(numbers[i]);
+        }
+        build.append('\n');
+        output.write(build.toString());
+    }
+
+    /**
+     * reads a snapshot written by write().
+     * @param f the file to read
+     * @return the snapshot
+     * @throws IOException if the file could not be read or is not a snapshot
+     */
+    public static Checkpoint read(File f) throws IOException{
+        Checkpoint checkpoint = new Checkpoint();
+        BufferedReader read = new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8"), 1 << 16);
+        ArrayList<int[]> learnedLines = new ArrayList<int[]>();
+        String line;
+        String[] parts;
+        try{
+            while((line = read.readLine()) != null){
+                if(line.equals("")){
+                    continue;
+                }
+                parts = line.split(" ");
+                if(parts[0].equals("v")){
+                    if(!parts[1].equals("1")){
+                        throw new IOException("Unknown checkpoint version " + parts[1]);
+                    }
+                    checkpoint.numSymbols = Integer.parseInt(parts[2]);
+                    checkpoint.numClauses = Integer.parseInt(parts[3]);
+                    checkpoint.footerHash = Integer.parseInt(parts[4]);
+                }
+                else if(parts[0].equals("t")){
+                    checkpoint.trail = new int[parts.length - 1];
+                    checkpoint.untried = new boolean[parts.length - 1];
+                    for(int i = 1; i < parts.length; i ++){
+                        checkpoint.untried[i - 1] = parts[i].endsWith("?");
+                        checkpoint.trail[i - 1] = Integer.parseInt(checkpoint.untried[i - 1] ? parts[i].substring(0, parts[i].length() - 1) : parts[i]);
+                    }
+                }
+                else if(parts[0].equals("o")){
+                    checkpoint.order = readNumbers(parts);
+                }
+                else if(parts[0].equals("p")){
+                    checkpoint.falsePhases = readNumbers(parts);
+                }
+                else if(parts[0].equals("l")){
+                    learnedLines.add(readNumbers(parts));
+                }
+            }
+        }
+        catch(NumberFormatException e){
+            throw new IOException("Badly formed checkpoint: " + e.getMessage());
+        }
+        catch(ArrayIndexOutOfBoundsException e){
+            throw new IOException("Badly formed checkpoint");
+        }
+        finally{
+            read.close();
+        }
+        if(checkpoint.trail == null || checkpoint.order == null || checkpoint.falsePhases == null){
+            throw new IOException("Incomplete checkpoint");
+        }
+        checkpoint.learned = learnedLines.toArray(new int[0][]);
+        return checkpoint;
+    }
+
+    /**
+     * reads the numbers following the letter on a line.
+     * @param parts the words of the line
+     * @return the numbers
+     */
+    private static int[] readNumbers(String[] parts){
+        int[] numbers = new int[parts.length - 1];
+        for(int i = 1; i < parts.length; i ++){
+            numbers[i - 1] = Integer.parseInt(parts[i]);
+        }
+        return numbers;
+    }
+
+    /**
+     * getter for the trail
+     * @return assigned symbols in order, negated if false
+     */
+    public int[] getTrail(){
+        return trail;
+    }
+
+    /**
+     * tells whether a trail entry is a guess whose other value has not been tried
+     * @param i position in the trail
+     * @return true if the other value still has to be tried
+     */
+    public boolean hasUntriedValue(int i){
+        return untried[i];
+    }
+
+    /**
+     * getter for the unassigned symbols
+     * @return the unassigned symbols, in the order DPLL considers them
+     */
+    public int[] getOrder(){
+        return order;
+    }
+
+    /**
+     * getter for the symbols whose preferred value is false
+     * @return the symbols
+     */
+    public int[] getFalsePhases(){
+        return falsePhases;
+    }
+
+    /**
+     * getter for the learned clauses
+     * @return each learned clause, as signed atoms
+     */
+    public int[][] getLearned(){
+        return learned;
+    }
+}
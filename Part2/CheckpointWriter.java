@@ -0,0 +1,132 @@
+import java.io.*;
+/**
+ * This class writes checkpoints of a DPLL search on a fixed interval without slowing the search
+ * down.  A background thread waits out the interval and then marks a checkpoint as due.  The
+ * search notices this in DPLL.shouldStop(), which it calls at every step anyway, takes a
+ * Checkpoint (a copy of a few arrays) and hands it over with submit().  The background thread
+ * then does the slow part, turning it into text and writing it to disk.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class CheckpointWriter implements Runnable{
+    private File file; //file the checkpoints are written to
+    private long intervalMillis; //time between checkpoints
+    private volatile boolean due = false; //set when the search should hand over a checkpoint
+    private Checkpoint pending = null; //checkpoint handed over but not yet written
+    private boolean stopped = false; //set when no more checkpoints should be written
+    private int written = 0; //number of checkpoints written
+    private Thread thread; //the background thread
+
+    /**
+     * constructor that sets where and how often checkpoints are written.
+     * @param file the file to write
+     * @param intervalMillis milliseconds between checkpoints
+     */
+    public CheckpointWriter(File file, long intervalMillis){
+        this.file = file;
+        this.intervalMillis = Math.max(1, intervalMillis);
+    }
+
+    /**
+     * starts the background thread.
+     */
+    public void start(){
+        thread = new Thread(this, "checkpoint writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * the background thread: marks a checkpoint as due after each interval, and writes it once
+     * the search hands it over.
+     */
+    public void run(){
+        Checkpoint next;
+        try{
+            while(true){
+                Thread.sleep(intervalMillis);
+                due = true;
+                synchronized(this){
+                    while(pending == null && !stopped){
+                        wait();
+                    }
+                    if(stopped){
+                        return;
+                    }
+                    next = pending;
+                    pending = null;
+                }
+                write(next);
+            }
+        }
+        catch(InterruptedException e){ //stop() was called
+        }
+    }
+
+    /**
+     * tells the search whether it should hand over a checkpoint.
+     * @return true if a checkpoint is due
+     */
+    public boolean isDue(){
+        return due;
+    }
+
+    /**
+     * hands a checkpoint over to be written in the background.
+     * @param checkpoint the checkpoint
+     */
+    public synchronized void submit(Checkpoint checkpoint){
+        due = false;
+        pending = checkpoint;
+        notifyAll();
+    }
+
+    /**
+     * stops the background thread, then writes a last checkpoint or deletes the file.
+     * @param last checkpoint to write before returning, or null to write none
+     * @param delete true to delete the checkpoint file, once the search has reached an answer
+     */
+    public void stop(Checkpoint last, boolean delete){
+        synchronized(this){
+            stopped = true;
+            notifyAll();
+        }
+        thread.interrupt();
+        try{
+            thread.join();
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        if(last != null){
+            write(last);
+        }
+        if(delete){
+            file.delete();
+        }
+    }
+
+    /**
+     * writes a checkpoint, warning instead of stopping the search if it cannot be written.
+     * @param checkpoint the checkpoint
+     */
+    private void write(Checkpoint checkpoint){
+        try{
+            checkpoint.write(file);
+            synchronized(this){
+                written ++;
+            }
+        }
+        catch(IOException e){
+            System.err.println("Warning: checkpoint \"" + file + "\" could not be written: " + e.getMessage());
+        }
+    }
+
+    /**
+     * getter for the number of checkpoints written
+     * @return checkpoints written so far
+     */
+    public synchronized int getWritten(){
+        return written;
+    }
+}
@@ -41,6 +41,17 @@ public class Clause{
         }
     }
 
+    /**
+     * constructor for a clause whose literals have already been built,
+     * such as those read from a binary input file.
+     * @param clauseLiterals the literals in the clause
+     */
+    public Clause(Literal[] clauseLiterals){
+        for(int i = 0; i < clauseLiterals.length; i ++){
+            literals.add(clauseLiterals[i]);
+        }
+    }
+
     /**
      * return a toString representation of this clause.  This
      * should be equivalent to the original clauseLine string that
@@ -60,6 +71,24 @@ public class Clause{
         return build.toString();
     }
 
+    /**
+     * getter for the number of literals in the clause
+     * @return the number of literals
+     */
+    public int size(){
+        return literals.size();
+    }
+
+    /**
+     * getter for a single literal of the clause.  The literal is not copied,
+     * so it should not be changed by the caller.
+     * @param i index of the literal
+     * @return the literal at index i
+     */
+    public Literal getLiteral(int i){
+        return literals.get(i);
+    }
+
     /**
      * this method returns copies of the unsatisfied literals in a clause.
      * it expects that updateClause() was already called, as that method
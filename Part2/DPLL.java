@@ -1,5 +1,6 @@
 import java.util.*;
 import java.io.*;
+import java.util.zip.GZIPInputStream;
 /** This is the main method where both the file reading and the DPLL algorithm is implemented.
  *  Given a set of symbols and clauses, this program will output a file containing the symbols
  *  and what truth values must be assigned to them for the clauses to all hold.  If there is no
@@ -16,44 +17,512 @@ public class DPLL{
     public static String footer; //footer string to add to the end of the output, for communication with part 3
     public static Literal unitClause = null; //used to store a unitClause.  This is found while looking for pure symbols
                                              //to save an extra search through the clauses
+    public static boolean sparseResults = false; //write only the true atoms to the results file (--sparse)
+    public static boolean lazy = false; //the illegal path clauses were left out by part 1 (--lazy)
+    public static TransitionChecker transitions = null; //adds illegal path clauses as they are needed in lazy mode
+    public static int backjumpLevel = Integer.MAX_VALUE; //in lazy mode, guesses placed after this position in the model are not tried the other way
+    public static boolean cardinality = false; //replace exactly one and at most one clause groups with native constraints (--cardinality)
+    public static ArrayList<CardinalityConstraint> constraints = new ArrayList<CardinalityConstraint>(); //native exactly one and at most one constraints
+    public static boolean reachability = false; //check that the rest of the graph can still be reached (--reachability)
+    public static ReachabilityPropagator propagator = null; //graph reasoning used when reachability is set
+    public static boolean useImplications = false; //keep two literal clauses in an implication graph (--implications)
+    public static boolean equivalences = false; //merge literals that imply each other in the graph (--equivalences)
+    public static boolean reduceImplications = false; //remove edges the graph reaches another way (--reduce)
+    public static BinaryImplications implications = null; //the two literal clauses, when useImplications is set
+    public static MappedClauseStore mappedClauses = null; //mapped input whose binary clauses are still in the file, or null
+    public static boolean verbose = true; //print progress while searching; turned off when DPLL is run inside another program
+    public static long timeLimitMillis = 0; //time budget for the search, or 0 for none (--timeout=seconds)
+    public static long deadline = 0; //System.nanoTime() at which the search gives up, or 0 for none
+    public static boolean timedOut = false; //set when the search ran out of time
+    public static volatile boolean stopRequested = false; //set to make the search give up as soon as possible
+    public static String resultsName = "DPLLResults.txt"; //file the results are written to (--out=name)
+    public static boolean localSearch = false; //look for a solution with local search instead of DPLL (--local)
+    public static boolean race = false; //run local search in another thread at the same time as DPLL (--race)
+    public static double noise = 0.5; //probability of a random walk step in local search (--noise=p)
+    public static long maxFlips = 10000000L; //flips local search makes before giving up, or 0 for no limit (--flips=n)
+    public static long seed = 1; //seed for local search's random choices (--seed=n)
+    public static String branching = "order"; //how the symbol to guess is chosen (--branch=order|occurrence|path)
+    public static BranchHeuristic brancher = null; //chooses the symbol to guess
+    public static String checkpointName = null; //file the search is checkpointed to, or null for none (--checkpoint=name)
+    public static double checkpointSeconds = 60; //time between checkpoints (--checkpoint-interval=seconds)
+    public static boolean resume = false; //continue from the checkpoint file instead of starting over (--resume)
+    public static CheckpointWriter checkpointWriter = null; //writes checkpoints in the background
+    public static Checkpoint stopCheckpoint = null; //checkpoint taken when the search was told to stop
+    public static int totalSymbols = 0; //number of symbols, taken before the search starts
+    public static int learnedFrom = 0; //clauses from this position on were learned during the search
+    public static Symbol[] guide = new Symbol[0]; //when resuming, the trail of the checkpointed search
+    public static boolean[] guideValues = new boolean[0]; //the value of each symbol of the guide
+    public static boolean[] guideUntried = new boolean[0]; //for each symbol of the guide, true if it's other value has not been tried
+    public static int guidePosition = 0; //next step of the guide to retake
+    public static String pathsName = null; //file every path is written to as it is found, or null to stop at the first (--all=name)
+    public static boolean countPaths = false; //count the paths of a small graph instead of searching for them (--count)
+    public static long pathCount = -1; //number of paths counted or found, or -1 if they were not looked for
+    public static Writer pathsOutput = null; //writer for the paths file while paths are enumerated
+    public static GraphFooter pathGraph = null; //graph used to read each path out of the model while paths are enumerated
+    public static int[] firstPath = null; //vertices of the first path found, in order, written to the results file
    /** Main method that controls the program logic (File reading, DPLL, file output)
     * 
     * @param args command line arguments - should specify the file to read from
     */
     public static void main(String [] args) {
         readInput(args);
-        generateResults(runDPLL());
+        readOptions(args);
+        if(mappedClauses != null && unsupportedWithMapped() != null){
+            System.err.println("Error: " + unsupportedWithMapped() + " can not be used with mapped input, whose two literal clauses stay in the file.\nTerminating...");
+            System.exit(1);
+        }
+        boolean success = solve();
+        if(timedOut){
+            if(pathsName != null){
+                System.err.println("Warning: the search ran out of time; only the paths found so far were written.");
+            }
+            else{
+                System.err.println("Warning: the search ran out of time; no solution was found in the time given.");
+            }
+        }
+        if(pathCount >= 0){
+            System.out.println("Hamiltonian paths: " + pathCount);
+        }
+        generateResults(success);
+    }
+
+    /**
+     * runs DPLL until it reaches an answer.  Lazy mode is turned on without --lazy when the footer
+     * says the input was written by ClauseGen --lazy.  In lazy mode, clauses for illegal paths are added
+     * while the search goes on: the search backs up to the last atom of a clause that was
+     * found false (see TransitionChecker.getBackjumpLevel()) and carries on from there.  The
+     * pure symbol rule is not used in lazy mode, because a choice it makes before a clause
+     * exists may no longer be safe after it is added.
+     *
+     * When every path is wanted (--all), the search does not stop at the first solution; see
+     * recordPath().  When the paths are only counted (--count), a graph small enough for
+     * PathCounter is counted without searching at all, and one of it's paths is kept as the solution.
+     * @return true if a solution was found
+     * @throws IllegalArgumentException if the input is mapped and an option that can not be used
+     *                                  with it is set (see unsupportedWithMapped())
+     */
+    public static boolean solve(){
+        if(!lazy && GraphFooter.isLazy(footer)){
+            log("The input leaves out the illegal path clauses, so they are added as they are needed (--lazy)");
+            lazy = true;
+        }
+        if(countPaths){
+            GraphFooter counted = new GraphFooter(footer, symbols);
+            if(PathCounter.canCount(counted)){
+                PathCounter counter = new PathCounter(counted);
+                pathCount = counter.count();
+                int[] path = counter.getPath();
+                if(path != null){
+                    showPath(counted, path);
+                }
+                return path != null;
+            }
+            System.err.println("Warning: only graphs of at most " + PathCounter.MAX_VERTICES + " vertices can be counted, so the paths are enumerated instead.");
+            if(pathsName == null){
+                pathsName = "DPLLPaths.txt";
+            }
+        }
+        if(pathsName != null && (localSearch || race)){
+            System.err.println("Warning: local search finds only one path, so it is not used when every path is wanted.");
+            localSearch = false;
+            race = false;
+        }
+        if(mappedClauses != null && unsupportedWithMapped() != null){
+            throw new IllegalArgumentException(unsupportedWithMapped() + " can not be used with mapped input, whose two literal clauses stay in the file");
+        }
+        LocalSearch walker = null;
+        if(localSearch || race){
+            if(lazy){
+                System.err.println("Warning: local search needs every clause, so it is not used with --lazy.");
+            }
+            else{ //built before the cardinality constraints take clauses away
+                walker = new LocalSearch(symbols, clauses, noise, maxFlips, seed);
+            }
+        }
+        if(cardinality){
+            int before = clauses.size();
+            constraints = CardinalityDetector.collapse(clauses);
+            model.setConstraints(constraints);
+            int exactlyOne = 0;
+            for(int i = 0; i < constraints.size(); i ++){
+                if(constraints.get(i).isExactlyOne()){
+                    exactlyOne ++;
+                }
+            }
+            log("Replaced " + (before - clauses.size()) + " clauses with " + exactlyOne + " exactly one and "
+                + (constraints.size() - exactlyOne) + " at most one constraints");
+        }
+        if(useImplications || mappedClauses != null){ //after the cardinality constraints, which take the "-a -b" clauses of their groups
+            if(mappedClauses != null){ //mapped input always keeps it's binary clauses in the graph, which reads them from the file
+                implications = BinaryImplications.extract(symbols, mappedClauses);
+                log("Following " + implications.getNumClauses() + " two literal clauses through the implication index of the mapped input");
+            }
+            else{
+                implications = BinaryImplications.extract(clauses, symbols);
+                log("Moved " + implications.getNumClauses() + " two literal clauses into an implication graph with " + implications.getNumEdges() + " edges");
+            }
+            model.setImplications(implications);
+            if(equivalences){
+                int merged = implications.mergeEquivalences();
+                if(merged < 0){
+                    log("A literal and it's negation imply each other; there is no solution");
+                    return false;
+                }
+                log("Linked " + merged + " equivalent literals to a representative");
+            }
+            if(reduceImplications){
+                log("Removed " + implications.reduce() + " edges reached through another literal");
+            }
+        }
+        GraphFooter graph = null;
+        if(lazy || reachability || pathsName != null || BranchHeuristic.needsGraph(branching)){
+            graph = new GraphFooter(footer, symbols);
+            if(lazy){
+                transitions = new TransitionChecker(graph);
+            }
+            if(reachability){
+                propagator = new ReachabilityPropagator(graph);
+            }
+        }
+        brancher = new BranchHeuristic(branching, graph);
+        if(pathsName != null){ //a resumed search adds to the paths found before it stopped
+            pathGraph = graph;
+            pathCount = 0;
+            try{
+                if(resume && new File(pathsName).isFile()){ //count the paths the stopped search already wrote
+                    BufferedReader written = new BufferedReader(new FileReader(pathsName));
+                    while(written.readLine() != null){
+                        pathCount ++;
+                    }
+                    written.close();
+                }
+                pathsOutput = new BufferedWriter(new FileWriter(pathsName, resume), 1 << 16);
+            }
+            catch(IOException e){
+                System.err.println("Error: File \"" + pathsName + "\" could not be read or created.\nTerminating...");
+                System.exit(1);
+            }
+        }
+        totalSymbols = symbols.size();
+        learnedFrom = clauses.size();
+        if(resume){
+            loadCheckpoint(new File(checkpointName == null ? "DPLLCheckpoint.txt" : checkpointName));
+        }
+        if(checkpointName != null){
+            checkpointWriter = new CheckpointWriter(new File(checkpointName), (long)(checkpointSeconds * 1000));
+            checkpointWriter.start();
+        }
+        deadline = timeLimitMillis > 0 ? System.nanoTime() + timeLimitMillis * 1000000L : 0;
+        if(walker != null && !race){ //local search alone can find a solution, but never prove there is none
+            boolean found = walker.search();
+            log("Local search " + (found ? "found a solution" : "gave up") + " after " + walker.getFlips() + " flips");
+            if(found){
+                walker.copyToSymbols();
+            }
+            else{
+                timedOut = true;
+            }
+            return found;
+        }
+        Thread racer = null;
+        if(walker != null){ //whichever of local search and DPLL finishes first stops the other
+            final LocalSearch raced = walker;
+            racer = new Thread(new Runnable(){
+                public void run(){
+                    if(raced.search()){
+                        stopRequested = true;
+                    }
+                }
+            });
+            racer.setDaemon(true);
+            racer.start();
+        }
+        boolean success = runDPLL();
+        if(racer != null){
+            walker.stop();
+            try{
+                racer.join();
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            if(!success && walker.isSolved()){ //DPLL was stopped because local search won
+                walker.copyToSymbols();
+                success = true;
+                timedOut = false;
+            }
+            log("Local search " + (walker.isSolved() ? "found a solution" : "did not finish") + " after " + walker.getFlips() + " flips");
+        }
+        if(checkpointWriter != null){ //keep a checkpoint only if the search stopped without an answer, which local search may have given after all
+            boolean answered = success || !stopRequested;
+            checkpointWriter.stop(answered ? null : stopCheckpoint, answered);
+            log("Checkpoints written: " + checkpointWriter.getWritten());
+        }
+        if(pathsOutput != null){
+            try{
+                pathsOutput.close();
+            }
+            catch(IOException e){
+                System.err.println("Error: File \"" + pathsName + "\" could not be written to.\nTerminating...");
+                System.exit(1);
+            }
+            pathsOutput = null;
+            if(firstPath != null){ //the search has backed out of every path, so set the first one again for the results
+                showPath(pathGraph, firstPath);
+                success = true;
+            }
+        }
+        if(lazy){
+            log("Illegal path clauses added: " + transitions.getAdded());
+        }
+        if(reachability){
+            log("Reachability conflicts: " + propagator.getConflicts());
+        }
+        return success;
+    }
+
+    /**
+     * finds an option that can not be used with mapped input.  Local search and the cardinality
+     * constraints need every clause as an object, and merging equivalent literals or removing
+     * edges rebuilds the implication graph on the heap, so each of them would copy the two
+     * literal clauses out of the file that mapped input keeps them in.
+     * @return the flag of the first such option that is set, or null if there is none
+     */
+    public static String unsupportedWithMapped(){
+        if(localSearch){
+            return "--local";
+        }
+        if(race){
+            return "--race";
+        }
+        if(cardinality){
+            return "--cardinality";
+        }
+        if(equivalences){
+            return "--equivalences";
+        }
+        if(reduceImplications){
+            return "--reduce";
+        }
+        return null;
+    }
+
+    /**
+     * prints a line of progress information, unless verbose is turned off.
+     * @param message the line to print
+     */
+    public static void log(String message){
+        if(verbose){
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * reads the optional flags that may follow the input file name.
+     * @param args command line arguments
+     */
+    public static void readOptions(String[] args){
+        for(int i = 1; i < args.length; i ++){
+            if(!setOption(args[i])){
+                System.err.println("Warning: unknown option \"" + args[i] + "\" was ignored.");
+            }
+        }
+    }
+
+    /**
+     * turns on a single option flag, such as "--sparse".
+     * @param option the flag to turn on
+     * @return false if the flag is not one DPLL knows
+     */
+    public static boolean setOption(String option){
+        if(option.equals("--sparse")){
+            sparseResults = true;
+        }
+        else if(option.equals("--lazy")){
+            lazy = true;
+        }
+        else if(option.equals("--cardinality")){
+            cardinality = true;
+        }
+        else if(option.equals("--reachability")){
+            reachability = true;
+        }
+        else if(option.equals("--implications")){
+            useImplications = true;
+        }
+        else if(option.equals("--equivalences")){
+            useImplications = true;
+            equivalences = true;
+        }
+        else if(option.equals("--reduce")){
+            useImplications = true;
+            reduceImplications = true;
+        }
+        else if(option.startsWith("--timeout=")){
+            timeLimitMillis = (long)(Double.parseDouble(option.substring(10)) * 1000);
+        }
+        else if(option.startsWith("--out=")){
+            resultsName = option.substring(6);
+        }
+        else if(option.equals("--local")){
+            localSearch = true;
+        }
+        else if(option.equals("--race")){
+            race = true;
+        }
+        else if(option.startsWith("--noise=")){
+            noise = Double.parseDouble(option.substring(8));
+        }
+        else if(option.startsWith("--flips=")){
+            maxFlips = Long.parseLong(option.substring(8));
+        }
+        else if(option.startsWith("--seed=")){
+            seed = Long.parseLong(option.substring(7));
+        }
+        else if(option.startsWith("--branch=") && BranchHeuristic.isKnown(option.substring(9))){
+            branching = option.substring(9);
+        }
+        else if(option.equals("--checkpoint")){
+            checkpointName = "DPLLCheckpoint.txt";
+        }
+        else if(option.startsWith("--checkpoint=")){
+            checkpointName = option.substring(13);
+        }
+        else if(option.startsWith("--checkpoint-interval=")){
+            checkpointSeconds = Double.parseDouble(option.substring(22));
+        }
+        else if(option.equals("--resume")){
+            resume = true;
+        }
+        else if(option.equals("--all")){
+            pathsName = "DPLLPaths.txt";
+        }
+        else if(option.startsWith("--all=")){
+            pathsName = option.substring(6);
+        }
+        else if(option.equals("--count")){
+            countPaths = true;
+        }
+        else{
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * turns every option flag back off, for programs that run DPLL more than once.
+     */
+    public static void resetOptions(){
+        sparseResults = false;
+        lazy = false;
+        cardinality = false;
+        reachability = false;
+        useImplications = false;
+        equivalences = false;
+        reduceImplications = false;
+        timeLimitMillis = 0;
+        resultsName = "DPLLResults.txt";
+        localSearch = false;
+        race = false;
+        noise = 0.5;
+        maxFlips = 10000000L;
+        seed = 1;
+        branching = "order";
+        checkpointName = null;
+        checkpointSeconds = 60;
+        resume = false;
+        pathsName = null;
+        countPaths = false;
+    }
+
+    /**
+     * clears the symbols, clauses, model and footer of the last run, so that
+     * another input can be read.  Option flags are left as they are.
+     */
+    public static void reset(){
+        count = 0;
+        symbols = new ArrayList<Symbol>();
+        clauses = new ArrayList<Clause>();
+        model = null;
+        footer = null;
+        unitClause = null;
+        transitions = null;
+        backjumpLevel = Integer.MAX_VALUE;
+        constraints = new ArrayList<CardinalityConstraint>();
+        propagator = null;
+        implications = null;
+        mappedClauses = null;
+        brancher = null;
+        checkpointWriter = null;
+        stopCheckpoint = null;
+        guide = new Symbol[0];
+        guideValues = new boolean[0];
+        guideUntried = new boolean[0];
+        guidePosition = 0;
+        deadline = 0;
+        timedOut = false;
+        stopRequested = false;
+        pathCount = -1;
+        pathsOutput = null;
+        pathGraph = null;
+        firstPath = null;
     }
 
     /** this method is called after DPLL is run.  if DPLL returns true, it prints out each symbol
      *  with their final truth values that DPLL assigned them.  If it returns false, it will not 
-     *  print the symbols.  It then prints a 0 and the footer to the original input
+     *  print the symbols.  It then prints a 0 and the footer to the original input.
+     *  
+     *  In sparse mode (--sparse) a solution is written as a line holding "s", followed by only
+     *  the atoms that are true, one per line.  Every other atom is false.
      * 
      * @param success - denotes weather or not DPLL found a solution
      */
     public static void generateResults(boolean success){
-        File results = new File("DPLLResults.txt"); //create file for writing
-        FileWriter output = null;
+        File results = new File(resultsName); //create file for writing
         try{ //try to open the file and write
-            output = new FileWriter(results, false);
-            if(!success){ //program failed: print a 0, the footer, and then exit
-                output.write("0\n");
-                output.write(footer);
-                output.close();
-                return;
-            } 
-            Collections.sort(symbols); //program succeded.  print the symbols, a 0, the footer, and then exit
-            for(int i = 0; i < symbols.size(); i ++){
-                output.write(symbols.get(i).toString());
-            }
+            writeResults(success, new BufferedWriter(new FileWriter(results, false), 1 << 16));
+        }
+        catch(IOException e){ //throw an exception if the file cannot be opened.
+            System.err.println("Error: File \"" + resultsName + "\" could not be created or could not be written to.\nTerminating...");
+        }
+    }
+
+    /**
+     * writes the results, in the format described in generateResults(), to the given writer,
+     * which is closed afterwards.
+     * @param success - denotes weather or not DPLL found a solution
+     * @param output the writer to write to
+     * @throws IOException if the writer could not be written to
+     */
+    public static void writeResults(boolean success, Writer output) throws IOException{
+        if(!success){ //program failed: print a 0, the footer, and then exit
             output.write("0\n");
             output.write(footer);
             output.close();
             return;
+        } 
+        if(sparseResults){ //print only the true symbols, in order
+            output.write("s\n");
+            ArrayList<Symbol> trueSymbols = new ArrayList<Symbol>();
+            for(int i = 0; i < symbols.size(); i ++){
+                if(symbols.get(i).getValue() != null && symbols.get(i).getValue()){
+                    trueSymbols.add(symbols.get(i));
+                }
+            }
+            Collections.sort(trueSymbols);
+            for(int i = 0; i < trueSymbols.size(); i ++){
+                output.write(trueSymbols.get(i).getName() + "\n");
+            }
         }
-        catch(IOException e){ //throw an exception if the file cannot be opened.
-            System.err.println("Error: File \"DPLLInput.txt\" could not be created or could not be written to.\nTerminating...");
+        else{
+            Collections.sort(symbols); //program succeded.  print the symbols, a 0, the footer, and then exit
+            for(int i = 0; i < symbols.size(); i ++){
+                output.write(symbols.get(i).toString());
+            }
         }
+        output.write("0\n");
+        output.write(footer);
+        output.close();
     }
 
     /**Method that actually rund the DPLL algorithm.  This is accomplioshed with a model which is responsible
@@ -64,15 +533,68 @@ public class DPLL{
      * @return boolean - signifies success of the algorithm
      */
     public static boolean runDPLL(){
-        System.out.print(count + ": ");
+        if(verbose){
+            System.out.print(count + ": ");
+            if(symbols.size() < 64 && model.size() > 0){
+                System.out.println(model.mostRecent());
+            }
+        }
         count ++;
-        if(symbols.size() < 64){
-            System.out.println(model.mostRecent());
+        if(shouldStop()){
+            return false;
         }
         Boolean allSatisfied = model.hasSolution(); //check if the model has a solution, failed, or is indeterminate (also updates the clauses)
+        if(transitions != null && (allSatisfied == null || allSatisfied)){ //lazy mode: make sure no illegal path has been taken
+            if(transitions.addViolated(model) > 0){ //back up until the added clauses can be true again
+                backjumpLevel = transitions.getBackjumpLevel();
+                return false;
+            }
+        }
         if(allSatisfied == null){ //no clauses are false, but some are still unsatisfied
+            if(propagator != null){ //look for parts of the graph that the path can no longer reach
+                Clause explanation = propagator.check();
+                if(explanation != null){
+                    model.addClause(explanation);
+                    return false;
+                }
+            }
+            if(guidePosition < guide.length){ //resuming from a checkpoint: retake the next step of the saved search
+                return retakeGuide();
+            }
+            if(!constraints.isEmpty()){ //set every symbol that a cardinality constraint forces, all in one step
+                ArrayList<Symbol> forced = propagateConstraints();
+                if(forced == null){
+                    return false;
+                }
+                if(!forced.isEmpty()){
+                    boolean complete = runDPLL();
+                    if(!complete){
+                        undo(forced);
+                    }
+                    else{ //add symbols back so that they are written with the results
+                        symbols.addAll(forced);
+                    }
+                    return complete;
+                }
+            }
+            if(implications != null){ //follow the two literal clauses from every new value, all in one step
+                ArrayList<Symbol> implied = propagateImplications();
+                if(implied == null){
+                    return false;
+                }
+                if(!implied.isEmpty()){
+                    boolean complete = runDPLL();
+                    if(!complete){
+                        undo(implied);
+                    }
+                    else{
+                        symbols.addAll(implied);
+                    }
+                    return complete;
+                }
+            }
             Literal pure = getPureSymbolAndUnitClause(); //look for a pure symbol.  This method also puts a unit clause into the global variable if it exists
-            if(pure != null){ //there is a pure symbol
+            if(pure != null && pathsName == null && !lazy){ //there is a pure symbol; not used when every path is wanted or in lazy mode, since it can skip over solutions
                 model.add(pure.getSym(), !(pure.isFlipped()));
                 symbols.remove(pure.getSym());
                 boolean complete = runDPLL(); //add symbol back in case DPLL failed (if it succeded, this doesn't affect it's final truth value)
@@ -93,16 +615,22 @@ public class DPLL{
                 }
                 return complete;
             }
-            Symbol first = symbols.get(0); //neither a pure symbol or unit clause exists; test a symbol randomly
-            symbols.remove(0);
-            model.add(first, true); //try true first
+            Symbol first = brancher == null ? symbols.get(0) : brancher.choose(symbols, clauses); //neither a pure symbol or unit clause exists; guess a symbol
+            symbols.remove(first);
+            boolean phase = first.getPhase();
+            model.addGuess(first, phase); //try the symbol's preferred value first (true unless a warm start said otherwise)
             boolean complete = runDPLL();
             if(complete){ //if it succeds return
                 symbols.add(first);
                 return complete;
             }
-            model.removeRecent(); //other wise try again with false now
-            model.add(first, false);
+            model.removeRecent(); //other wise try again with the other value now
+            if(model.size() > backjumpLevel || stopRequested){ //a clause added in lazy mode is still false without this symbol, or the search is giving up; don't try the other value
+                symbols.add(first);
+                return false;
+            }
+            backjumpLevel = Integer.MAX_VALUE; //the added clauses no longer stop the other value from working
+            model.add(first, !phase);
             complete = runDPLL();
             symbols.add(first);
             if(!complete){ //if DPLL failed on this symbol, remove it from the model
@@ -113,9 +641,267 @@ public class DPLL{
         else if(!allSatisfied){ //one clause is false; there is no solution
             return false;
         }
+        if(pathsName != null){ //every path is wanted: keep this one and carry on as if it had failed
+            recordPath();
+            return false;
+        }
         return true; //all clauses are true; we did it!
     }
 
+    /**
+     * called when every clause is true while every path is wanted.  The path is read out of
+     * the true vertex/position atoms and written to the paths file right away, in the form
+     * part 3 prints.  A clause saying that not all of those atoms are true is then added, so
+     * the path cannot be found again, even by a search that resumes from a checkpoint.  The other atoms are left out of the clause, since the path already
+     * decides them.  The caller then backs up from this point and the search goes on from
+     * there, instead of starting over for each path.
+     */
+    public static void recordPath(){
+        int n = pathGraph.getNumVertices();
+        int[] path = new int[n];
+        Literal[] blocking = new Literal[n];
+        for(int time = 1; time <= n; time ++){
+            for(int vertex = 0; vertex < n; vertex ++){
+                if(pathGraph.isTrue(vertex, time)){
+                    path[time - 1] = vertex;
+                    blocking[time - 1] = new Literal(pathGraph.getSymbol(vertex, time), true);
+                }
+            }
+        }
+        model.addClause(new Clause(blocking));
+        if(firstPath == null){
+            firstPath = path;
+        }
+        pathCount ++;
+        try{
+            pathsOutput.write(formatPath(pathGraph, path) + "\n");
+            pathsOutput.flush(); //so that each path can be read as soon as it is found
+        }
+        catch(IOException e){
+            System.err.println("Error: File \"" + pathsName + "\" could not be written to.\nTerminating...");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * writes a path the way part 3 prints a solution.
+     * @param graph the graph the path is in
+     * @param path the vertices of the path in order
+     * @return the path as a line such as "Solution: [A, B, C]"
+     */
+    public static String formatPath(GraphFooter graph, int[] path){
+        StringBuilder line = new StringBuilder("Solution: [");
+        for(int i = 0; i < path.length; i ++){
+            if(i > 0){
+                line.append(", ");
+            }
+            line.append(graph.getName(path[i]));
+        }
+        return line.append("]").toString();
+    }
+
+    /**
+     * sets every symbol to the value it has in a path, so that the path is written as the solution.
+     * @param graph the graph the path is in
+     * @param path the vertices of the path in order
+     */
+    public static void showPath(GraphFooter graph, int[] path){
+        for(int i = 0; i < symbols.size(); i ++){
+            symbols.get(i).setValue(false);
+        }
+        for(int i = 0; i < path.length; i ++){
+            if(graph.getSymbol(path[i], i + 1) != null){
+                graph.getSymbol(path[i], i + 1).setValue(true);
+            }
+        }
+    }
+
+    /**
+     * this method assigns every symbol whose value is forced by a cardinality constraint.  When
+     * one symbol of a constraint is true, all of the others are set to false together.  Only the
+     * constraints with a symbol that got a value since the last call are looked at.
+     * @return the symbols that were assigned, or null if two constraints forced opposite values
+     *         (in which case nothing is left assigned)
+     */
+    public static ArrayList<Symbol> propagateConstraints(){
+        ArrayList<Symbol> forced = new ArrayList<Symbol>();
+        ArrayList<Symbol> candidates = new ArrayList<Symbol>();
+        ArrayList<Boolean> values = new ArrayList<Boolean>();
+        Symbol s;
+        ArrayList<CardinalityConstraint> changed = model.takeChangedConstraints();
+        for(int i = 0; i < changed.size(); i ++){
+            candidates.clear();
+            values.clear();
+            changed.get(i).getForced(candidates, values);
+            for(int j = 0; j < candidates.size(); j ++){
+                s = candidates.get(j);
+                if(s.getValue() == null){
+                    model.add(s, values.get(j));
+                    symbols.remove(s);
+                    forced.add(s);
+                }
+                else if(s.getValue() != values.get(j).booleanValue()){ //forced both ways by two constraints
+                    undo(forced);
+                    return null;
+                }
+            }
+        }
+        return forced;
+    }
+
+    /**
+     * gives a value to every symbol forced by the two literal clauses in the implication graph.
+     * The symbols are added to the model and removed from the unassigned symbols.  If two
+     * clauses force a symbol both ways, everything added is taken back out.
+     * @return the symbols that were given a value, or null if the two literal clauses cannot all be true
+     */
+    public static ArrayList<Symbol> propagateImplications(){
+        ArrayList<Symbol> implied = new ArrayList<Symbol>();
+        boolean consistent = implications.propagate(model, implied);
+        symbols.removeAll(new HashSet<Symbol>(implied));
+        if(!consistent){
+            undo(implied);
+            return null;
+        }
+        return implied;
+    }
+
+    /**
+     * removes the given symbols from the model, most recent first, and returns
+     * them to the list of unassigned symbols.
+     * @param assigned symbols that were added to the model, in the order they were added
+     */
+    public static void undo(ArrayList<Symbol> assigned){
+        for(int i = assigned.size() - 1; i >= 0; i --){
+            model.removeRecent();
+            symbols.add(assigned.get(i));
+        }
+    }
+
+    /**
+     * checks whether the search should give up, either because stopRequested was set or
+     * because the time budget has run out.
+     * @return true if the search should stop
+     */
+    public static boolean shouldStop(){
+        if(deadline != 0 && !stopRequested && System.nanoTime() > deadline){
+            timedOut = true;
+            stopRequested = true;
+        }
+        if(checkpointWriter != null){ //snapshots are taken here, where the model and symbol list agree
+            if(stopRequested){
+                if(stopCheckpoint == null){
+                    stopCheckpoint = new Checkpoint(totalSymbols, learnedFrom, footer, model, symbols, clauses);
+                }
+            }
+            else if(checkpointWriter.isDue()){
+                checkpointWriter.submit(new Checkpoint(totalSymbols, learnedFrom, footer, model, symbols, clauses));
+            }
+        }
+        return stopRequested;
+    }
+
+    /**
+     * retakes the next step of the search a checkpoint was taken from.  Each step assigns the
+     * symbol the value it had in the trail.  If that fails, the rest of the guide is dropped,
+     * since it was all below this step, and the other value is tried only if the checkpointed
+     * search had not already tried it.  Every other kind of step on the trail (a pure symbol, a
+     * unit clause, or a guess whose first value had already failed) has nothing left to try.
+     * @return true if a solution was found
+     */
+    public static boolean retakeGuide(){
+        Symbol s = guide[guidePosition];
+        boolean value = guideValues[guidePosition];
+        boolean untried = guideUntried[guidePosition];
+        guidePosition ++;
+        symbols.remove(s);
+        if(untried){
+            model.addGuess(s, value);
+        }
+        else{
+            model.add(s, value);
+        }
+        boolean complete = runDPLL();
+        if(!complete){
+            guidePosition = guide.length;
+            model.removeRecent();
+            if(untried && model.size() <= backjumpLevel && !stopRequested){
+                backjumpLevel = Integer.MAX_VALUE;
+                model.add(s, !value);
+                complete = runDPLL();
+                if(!complete){
+                    model.removeRecent();
+                }
+            }
+        }
+        symbols.add(s);
+        return complete;
+    }
+
+    /**
+     * reads a checkpoint to resume from: adds it's learned clauses, restores the order and
+     * preferred values of the symbols, and sets up the guide that retakes it's trail.  A missing
+     * checkpoint, or one taken from different input, is ignored with a warning.
+     * @param f the checkpoint file
+     */
+    public static void loadCheckpoint(File f){
+        if(!f.isFile()){
+            System.err.println("Warning: there is no checkpoint \"" + f + "\" to resume from; starting over.");
+            return;
+        }
+        Checkpoint checkpoint;
+        try{
+            checkpoint = Checkpoint.read(f);
+        }
+        catch(IOException e){
+            System.err.println("Warning: checkpoint \"" + f + "\" could not be read (" + e.getMessage() + "); starting over.");
+            return;
+        }
+        if(!checkpoint.matches(totalSymbols, learnedFrom, footer)){
+            System.err.println("Warning: checkpoint \"" + f + "\" was taken with different input or options; starting over.");
+            return;
+        }
+
+        HashMap<Integer, Symbol> byName = new HashMap<Integer, Symbol>();
+        for(int i = 0; i < symbols.size(); i ++){
+            byName.put(symbols.get(i).getName(), symbols.get(i));
+        }
+        int[][] learned = checkpoint.getLearned();
+        Literal[] literals;
+        for(int i = 0; i < learned.length; i ++){
+            literals = new Literal[learned[i].length];
+            for(int j = 0; j < literals.length; j ++){
+                literals[j] = new Literal(byName.get(Math.abs(learned[i][j])), learned[i][j] < 0);
+            }
+            model.addClause(new Clause(literals));
+        }
+        int[] falsePhases = checkpoint.getFalsePhases();
+        for(int i = 0; i < falsePhases.length; i ++){
+            byName.get(falsePhases[i]).setPhase(false);
+        }
+
+        int[] trail = checkpoint.getTrail();
+        guide = new Symbol[trail.length];
+        guideValues = new boolean[trail.length];
+        guideUntried = new boolean[trail.length];
+        for(int i = 0; i < trail.length; i ++){
+            guide[i] = byName.get(Math.abs(trail[i]));
+            guideValues[i] = trail[i] > 0;
+            guideUntried[i] = checkpoint.hasUntriedValue(i);
+        }
+        guidePosition = 0;
+        int[] order = checkpoint.getOrder(); //once the guide is retaken, the unassigned symbols are left in this order
+        ArrayList<Symbol> ordered = new ArrayList<Symbol>(symbols.size());
+        for(int i = 0; i < order.length; i ++){
+            ordered.add(byName.get(order[i]));
+        }
+        ordered.addAll(Arrays.asList(guide));
+        if(ordered.size() == symbols.size()){
+            symbols = ordered;
+        }
+        log("Resuming from a checkpoint: " + trail.length + " steps, " + learned.length + " learned clauses");
+    }
+
     /**This method looks through the clauses for a pure symbol.  it also will try
      * to find a unit clause while doing this, so that we do not need to make two passes
      * through the unsatisfied clause literals twice in a single run
@@ -161,6 +947,34 @@ public class DPLL{
             }
         }
 
+        Symbol[] constrained;
+        for(int i = 0; i < constraints.size(); i ++){ //symbols in a cardinality constraint appear both ways
+            constrained = constraints.get(i).getSymbols();
+            for(int j = 0; j < constrained.length; j ++){
+                if(constrained[j].getValue() == null){
+                    notPure[indexes.get(constrained[j])] = true;
+                }
+            }
+        }
+
+        Symbol s;
+        boolean flipped;
+        for(int i = 0; i < symbols.size() && implications != null; i ++){ //two literal clauses are in the implication graph instead of the clause list
+            s = symbols.get(i);
+            for(int j = 0; j < 2 && !notPure[i]; j ++){
+                flipped = j == 1;
+                if(implications.occursOpen(s, flipped)){
+                    comparing = maybePure.get(i);
+                    if(comparing == null){
+                        maybePure.set(i, new Literal(s, flipped));
+                    }
+                    else if(comparing.isFlipped() != flipped){
+                        notPure[i] = true;
+                    }
+                }
+            }
+        }
+
         for(int i = 0; i < symbols.size(); i ++){ //if any symbol is pure, return it.
             if(!notPure[i]){
                 if(maybePure.get(i) != null){
@@ -174,7 +988,8 @@ public class DPLL{
     /**
      * method for input reading.  This method will read in all of the symbols and initialize them.
      * it also creates the list of clauses.  Once it is finished, it will initialize the model
-     * with the given clauses and return.
+     * with the given clauses and return.  The file may be text, the binary format from part 1 (either
+     * may be gzip compressed), or the mapped format; the format is detected from the first bytes of the file.
      * @param args command line arguments, specifying the file to run DPLL on.
      */
     public static void readInput(String [] args){
@@ -185,50 +1000,104 @@ public class DPLL{
 
         File f = new File(args[0]);
         try{
-            Scanner scan = new Scanner(f);
-            ArrayList<String> clauseLines = new ArrayList<String>();
-            HashMap<String, Symbol> symbolsByName = new HashMap<String, Symbol>();
-            String[] atoms;
-            String currentAtom;
-            String currentLine;
-            Symbol temp;
-            while(scan.hasNextLine()){
-                if((currentLine = scan.nextLine()).equals("")){
-                    continue;
-                }
-                if(currentLine.equals("0")){
-                    break;
-                }
-                clauseLines.add(currentLine);
-                atoms = currentLine.split(" ");
-                for(int i = 0; i < atoms.length; i ++){
-                    currentAtom = atoms[i];
-                    if(currentAtom.charAt(0) == '-'){
-                        currentAtom = currentAtom.substring(1);
-                    }
-                    if(symbolsByName.get(currentAtom) == null){
-                        temp = new Symbol(currentAtom);
-                        symbols.add(temp);
-                        symbolsByName.put(currentAtom, temp);
-                    }
-                }
+            if(f.isFile() && MappedClauseStore.isMapped(f)){
+                readMapped(f);
             }
-
-            for(int i = 0; i < clauseLines.size(); i ++){
-                clauses.add(new Clause(clauseLines.get(i), symbolsByName));
+            else{
+                readStream(new FileInputStream(f));
             }
-            model = new Model(clauses);
-
-            StringBuilder footBuilder = new StringBuilder();
-            while(scan.hasNextLine()){
-                footBuilder.append(scan.nextLine() + "\n");
-            }
-            footBuilder.deleteCharAt(footBuilder.length() - 1);
-            footer = footBuilder.toString();
         }
         catch(FileNotFoundException e){
             System.err.println("Error: The file \"" + args[0] + "\" could not be found.\nTerminating...\n");
             System.exit(1);
         }
+        catch(IOException e){
+            System.err.println("Error: The file \"" + args[0] + "\" could not be read: " + e.getMessage() + "\nTerminating...\n");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * reads the symbols, long clauses and footer from a file written by ClauseGen --mapped.  The
+     * binary clauses are left in the mapped file until solve() builds the implication graph from them.
+     * @param f the file to read
+     * @throws IOException if the file could not be mapped or is damaged
+     */
+    public static void readMapped(File f) throws IOException{
+        mappedClauses = new MappedClauseStore(f);
+        footer = mappedClauses.read(symbols, clauses);
+        model = new Model(clauses);
+    }
+
+    /**
+     * reads the symbols, clauses and footer from a stream holding text or binary input,
+     * either of which may be gzip compressed.  The stream is closed afterwards.
+     * @param stream the stream to read
+     * @throws IOException if the stream could not be read or holds a damaged binary file
+     */
+    public static void readStream(InputStream stream) throws IOException{
+        BufferedInputStream in = new BufferedInputStream(stream, 1 << 16);
+        in.mark(2);
+        if(in.read() == 0x1f && in.read() == 0x8b){ //gzip magic number
+            in.reset();
+            in = new BufferedInputStream(new GZIPInputStream(in, 1 << 16), 1 << 16);
+        }
+        else{
+            in.reset();
+        }
+        if(BinaryCNFReader.isBinary(in)){
+            footer = new BinaryCNFReader(in).read(symbols, clauses);
+            model = new Model(clauses);
+        }
+        else{
+            readText(new Scanner(in, "UTF-8"));
+        }
+        in.close();
+    }
+
+    /**
+     * reads clauses in the text format, one clause per line, followed by a 0 line and the footer.
+     * @param scan scanner over the text input
+     */
+    public static void readText(Scanner scan){
+        ArrayList<String> clauseLines = new ArrayList<String>();
+        HashMap<String, Symbol> symbolsByName = new HashMap<String, Symbol>();
+        String[] atoms;
+        String currentAtom;
+        String currentLine;
+        Symbol temp;
+        while(scan.hasNextLine()){
+            if((currentLine = scan.nextLine()).equals("")){
+                continue;
+            }
+            if(currentLine.equals("0")){
+                break;
+            }
+            clauseLines.add(currentLine);
+            atoms = currentLine.split(" ");
+            for(int i = 0; i < atoms.length; i ++){
+                currentAtom = atoms[i];
+                if(currentAtom.charAt(0) == '-'){
+                    currentAtom = currentAtom.substring(1);
+                }
+                if(symbolsByName.get(currentAtom) == null){
+                    temp = new Symbol(currentAtom);
+                    symbols.add(temp);
+                    symbolsByName.put(currentAtom, temp);
+                }
+            }
+        }
+
+        for(int i = 0; i < clauseLines.size(); i ++){
+            clauses.add(new Clause(clauseLines.get(i), symbolsByName));
+        }
+        model = new Model(clauses);
+
+        StringBuilder footBuilder = new StringBuilder();
+        while(scan.hasNextLine()){
+            footBuilder.append(scan.nextLine() + "\n");
+        }
+        footBuilder.deleteCharAt(footBuilder.length() - 1);
+        footer = footBuilder.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,146 @@
+import java.util.*;
+/**
+ * This class reads the footer written by part 1 to recover the graph behind the clauses.
+ * Each atom line "atom name time" says that an atom means the named vertex is at that
+ * position in the path, and each edge line "e start end" lists an edge of the graph.  A last
+ * line "lazy" says that part 1 left out the illegal path clauses (see isLazy()).
+ * Vertices are numbered in the order that they first appear in the footer, which is the
+ * same order part 1 gives them.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class GraphFooter{
+    private int numVertices; //number of vertices in the graph (and positions in the path)
+    private ArrayList<String> names = new ArrayList<String>(); //vertex names by index
+    private int[][] atoms; //atoms[vertex][time] is the atom meaning vertex is at time; times start at 1
+    private Symbol[][] symbolAt; //symbolAt[vertex][time] is the symbol for atoms[vertex][time], or null if it is in no clause
+    private boolean[][] adjacent; //adjacent[a][b] is true if there is an edge from vertex a to vertex b
+
+    /**
+     * constructor that parses the footer and connects each atom to it's symbol.
+     * @param footer the footer text, as stored by DPLL
+     * @param symbols every symbol used by the clauses
+     */
+    public GraphFooter(String footer, ArrayList<Symbol> symbols){
+        String[] lines = footer.split("\n");
+        HashMap<String, Integer> indexByName = new HashMap<String, Integer>();
+        ArrayList<int[]> atomLines = new ArrayList<int[]>(); //{atom, vertex, time} for every atom line
+        ArrayList<int[]> edgeLines = new ArrayList<int[]>(); //{start, end} for every edge line
+        String[] parts;
+        Integer index;
+        for(int i = 0; i < lines.length; i ++){
+            if(lines[i].equals("") || lines[i].equals("lazy")){
+                continue;
+            }
+            parts = lines[i].split(" ");
+            if(parts[0].equals("e")){
+                edgeLines.add(new int[]{indexByName.get(parts[1]), indexByName.get(parts[2])});
+                continue;
+            }
+            index = indexByName.get(parts[1]);
+            if(index == null){
+                index = names.size();
+                names.add(parts[1]);
+                indexByName.put(parts[1], index);
+            }
+            atomLines.add(new int[]{Integer.parseInt(parts[0]), index, Integer.parseInt(parts[2])});
+        }
+
+        numVertices = names.size();
+        atoms = new int[numVertices][numVertices + 1];
+        adjacent = new boolean[numVertices][numVertices];
+        int[] line;
+        int maxAtom = 0;
+        for(int i = 0; i < atomLines.size(); i ++){
+            line = atomLines.get(i);
+            atoms[line[1]][line[2]] = line[0];
+            maxAtom = Math.max(maxAtom, line[0]);
+        }
+        for(int i = 0; i < edgeLines.size(); i ++){
+            line = edgeLines.get(i);
+            adjacent[line[0]][line[1]] = true;
+        }
+
+        Symbol[] symbolsByAtom = new Symbol[maxAtom + 1];
+        for(int i = 0; i < symbols.size(); i ++){
+            if(symbols.get(i).getName() <= maxAtom){
+                symbolsByAtom[symbols.get(i).getName()] = symbols.get(i);
+            }
+        }
+        symbolAt = new Symbol[numVertices][numVertices + 1];
+        for(int vertex = 0; vertex < numVertices; vertex ++){
+            for(int time = 1; time <= numVertices; time ++){
+                symbolAt[vertex][time] = symbolsByAtom[atoms[vertex][time]];
+            }
+        }
+    }
+
+    /**
+     * tells whether a footer was written by ClauseGen --lazy, which leaves out the clauses that
+     * forbid following edges that do not exist.  Such clauses must be added by the solver as
+     * they are needed, or orders of the vertices that are not paths would be taken as solutions.
+     * @param footer the footer text, as stored by DPLL
+     * @return true if the last line of the footer is "lazy"
+     */
+    public static boolean isLazy(String footer){
+        return footer.equals("lazy") || footer.endsWith("\nlazy");
+    }
+
+    /**
+     * getter for the number of vertices in the graph
+     * @return the number of vertices, which is also the number of positions in a path
+     */
+    public int getNumVertices(){
+        return numVertices;
+    }
+
+    /**
+     * getter for the name of a vertex
+     * @param vertex index of the vertex
+     * @return the name given to the vertex in the original graph
+     */
+    public String getName(int vertex){
+        return names.get(vertex);
+    }
+
+    /**
+     * returns the atom that means a vertex is at a position
+     * @param vertex index of the vertex
+     * @param time position in the path, starting at 1
+     * @return the atom number
+     */
+    public int getAtom(int vertex, int time){
+        return atoms[vertex][time];
+    }
+
+    /**
+     * returns the symbol that means a vertex is at a position
+     * @param vertex index of the vertex
+     * @param time position in the path, starting at 1
+     * @return the symbol, or null if the atom does not appear in any clause
+     */
+    public Symbol getSymbol(int vertex, int time){
+        return symbolAt[vertex][time];
+    }
+
+    /**
+     * checks whether the vertex is assigned true at the given position.
+     * @param vertex index of the vertex
+     * @param time position in the path, starting at 1
+     * @return true only if the symbol exists and is set to true
+     */
+    public boolean isTrue(int vertex, int time){
+        Symbol s = symbolAt[vertex][time];
+        return s != null && s.getValue() != null && s.getValue();
+    }
+
+    /**
+     * checks whether the graph has an edge from one vertex to another
+     * @param start index of the vertex the edge leaves
+     * @param end index of the vertex the edge enters
+     * @return true if the edge exists
+     */
+    public boolean hasEdge(int start, int end){
+        return adjacent[start][end];
+    }
+}
@@ -0,0 +1,251 @@
+import java.util.*;
+/**
+ * This class looks for a solution to the clauses with WalkSAT, a local search.  It starts from
+ * a random assignment of every symbol and then repeatedly picks a false clause and flips one of
+ * it's symbols, so the clause becomes true.  With probability "noise" the symbol is chosen at
+ * random; otherwise it is the symbol whose flip makes the fewest other clauses false (it's
+ * "break count").  A flip that breaks nothing is always taken.
+ *
+ * Local search is not complete: it can find a solution quickly, but it can never show that
+ * there is none.  It only gives up, once it has used it's flip budget or the search's time.
+ * It keeps it's own assignment in an array rather than in the symbols, so that it can run in
+ * another thread at the same time as DPLL.  Only when a solution is found is it copied into the
+ * symbols, with copyToSymbols(), so that it is written out by DPLL.generateResults() like any
+ * other solution.
+ *
+ * Each literal is numbered 2 * symbol for the symbol itself and 2 * symbol + 1 for it's negation,
+ * where symbols are numbered by their place in the list given to the constructor.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class LocalSearch{
+    private Symbol[] symbols; //symbols, by number
+    private int[][] clauseLiterals; //literals of each clause
+    private int[][] occurrences; //occurrences[literal] lists the clauses containing the literal
+    private boolean[] assignment; //current value of each symbol
+    private int[] numTrue; //number of true literals in each clause
+    private int[] falseClauses; //every clause that is false right now
+    private int[] falsePosition; //position of each clause in falseClauses, or -1 if it is true
+    private int numFalse = 0; //number of clauses that are false right now
+    private double noise; //probability of flipping a random symbol of the chosen clause
+    private long maxFlips; //flips to make before giving up, or 0 for no limit
+    private long flips = 0; //flips made so far
+    private Random random; //source of the random choices
+    private volatile boolean stopRequested = false; //set to make the search give up as soon as possible
+    private volatile boolean solved = false; //set when every clause is true
+
+    /**
+     * constructor that numbers the symbols and literals of the clauses.
+     * @param symbols every symbol used by the clauses
+     * @param clauses the clauses to satisfy
+     * @param noise probability of flipping a random symbol rather than the best one
+     * @param maxFlips flips to make before giving up, or 0 for no limit
+     * @param seed seed for the random choices
+     */
+    public LocalSearch(ArrayList<Symbol> symbols, ArrayList<Clause> clauses, double noise, long maxFlips, long seed){
+        this.symbols = symbols.toArray(new Symbol[0]);
+        this.noise = noise;
+        this.maxFlips = maxFlips;
+        random = new Random(seed);
+        HashMap<Symbol, Integer> numbers = new HashMap<Symbol, Integer>();
+        for(int i = 0; i < this.symbols.length; i ++){
+            numbers.put(this.symbols[i], i);
+        }
+
+        clauseLiterals = new int[clauses.size()][];
+        int[] counts = new int[2 * this.symbols.length];
+        Clause c;
+        Literal l;
+        for(int i = 0; i < clauseLiterals.length; i ++){
+            c = clauses.get(i);
+            clauseLiterals[i] = new int[c.size()];
+            for(int j = 0; j < c.size(); j ++){
+                l = c.getLiteral(j);
+                clauseLiterals[i][j] = 2 * numbers.get(l.getSym()) + (l.isFlipped() ? 1 : 0);
+                counts[clauseLiterals[i][j]] ++;
+            }
+        }
+        occurrences = new int[counts.length][];
+        for(int i = 0; i < counts.length; i ++){
+            occurrences[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        int literal;
+        for(int i = 0; i < clauseLiterals.length; i ++){
+            for(int j = 0; j < clauseLiterals[i].length; j ++){
+                literal = clauseLiterals[i][j];
+                occurrences[literal][counts[literal] ++] = i;
+            }
+        }
+
+        assignment = new boolean[this.symbols.length];
+        numTrue = new int[clauseLiterals.length];
+        falseClauses = new int[clauseLiterals.length];
+        falsePosition = new int[clauseLiterals.length];
+    }
+
+    /**
+     * searches until every clause is true, the flip budget is used up, DPLL's deadline
+     * passes, or stop() is called.
+     * @return true if a solution was found
+     */
+    public boolean search(){
+        for(int i = 0; i < assignment.length; i ++){
+            assignment[i] = random.nextBoolean();
+        }
+        numFalse = 0;
+        for(int i = 0; i < clauseLiterals.length; i ++){
+            numTrue[i] = 0;
+            for(int j = 0; j < clauseLiterals[i].length; j ++){
+                if(isTrue(clauseLiterals[i][j])){
+                    numTrue[i] ++;
+                }
+            }
+            falsePosition[i] = -1;
+            if(numTrue[i] == 0){
+                addFalse(i);
+            }
+        }
+
+        int[] literals;
+        int best;
+        int bestBreak;
+        int breaks;
+        int ties;
+        while(numFalse > 0){
+            if((flips & 1023) == 0 && shouldStop()){
+                return false;
+            }
+            literals = clauseLiterals[falseClauses[random.nextInt(numFalse)]];
+            best = -1;
+            bestBreak = Integer.MAX_VALUE;
+            ties = 0;
+            for(int j = 0; j < literals.length; j ++){ //find the symbol whose flip breaks the fewest clauses, choosing fairly among ties
+                breaks = breakCount(literals[j] >> 1);
+                if(breaks < bestBreak){
+                    bestBreak = breaks;
+                    best = literals[j] >> 1;
+                    ties = 1;
+                }
+                else if(breaks == bestBreak && random.nextInt(++ ties) == 0){
+                    best = literals[j] >> 1;
+                }
+            }
+            if(bestBreak > 0 && random.nextDouble() < noise){ //a random walk step, unless a flip that breaks nothing is available
+                best = literals[random.nextInt(literals.length)] >> 1;
+            }
+            flip(best);
+            flips ++;
+        }
+        solved = true;
+        return true;
+    }
+
+    /**
+     * decides whether the search should give up.
+     * @return true if stop() was called, the flip budget is used up, or DPLL's deadline has passed
+     */
+    private boolean shouldStop(){
+        return stopRequested || (maxFlips > 0 && flips >= maxFlips) || (DPLL.deadline != 0 && System.nanoTime() > DPLL.deadline);
+    }
+
+    /**
+     * tells whether a literal is true under the current assignment.
+     * @param literal the literal
+     * @return true if the literal is true
+     */
+    private boolean isTrue(int literal){
+        return assignment[literal >> 1] != ((literal & 1) == 1);
+    }
+
+    /**
+     * counts the clauses that would become false if a symbol were flipped: those whose only
+     * true literal belongs to the symbol.
+     * @param symbol the symbol's number
+     * @return the break count
+     */
+    private int breakCount(int symbol){
+        int[] clauses = occurrences[2 * symbol + (assignment[symbol] ? 0 : 1)]; //clauses where the symbol's literal is true
+        int breaks = 0;
+        for(int i = 0; i < clauses.length; i ++){
+            if(numTrue[clauses[i]] == 1){
+                breaks ++;
+            }
+        }
+        return breaks;
+    }
+
+    /**
+     * flips a symbol, updating the true literal counts and the list of false clauses.
+     * @param symbol the symbol's number
+     */
+    private void flip(int symbol){
+        int wasTrue = 2 * symbol + (assignment[symbol] ? 0 : 1);
+        assignment[symbol] = !assignment[symbol];
+        int[] clauses = occurrences[wasTrue];
+        for(int i = 0; i < clauses.length; i ++){
+            if(-- numTrue[clauses[i]] == 0){
+                addFalse(clauses[i]);
+            }
+        }
+        clauses = occurrences[wasTrue ^ 1];
+        for(int i = 0; i < clauses.length; i ++){
+            if(++ numTrue[clauses[i]] == 1){
+                removeFalse(clauses[i]);
+            }
+        }
+    }
+
+    /**
+     * adds a clause to the list of false clauses.
+     * @param clause the clause's number
+     */
+    private void addFalse(int clause){
+        falsePosition[clause] = numFalse;
+        falseClauses[numFalse ++] = clause;
+    }
+
+    /**
+     * removes a clause from the list of false clauses, moving the last one into it's place.
+     * @param clause the clause's number
+     */
+    private void removeFalse(int clause){
+        int last = falseClauses[-- numFalse];
+        falseClauses[falsePosition[clause]] = last;
+        falsePosition[last] = falsePosition[clause];
+        falsePosition[clause] = -1;
+    }
+
+    /**
+     * makes the search give up as soon as possible.  It may be called from another thread.
+     */
+    public void stop(){
+        stopRequested = true;
+    }
+
+    /**
+     * returns true once the search has found a solution
+     * @return true if every clause is true
+     */
+    public boolean isSolved(){
+        return solved;
+    }
+
+    /**
+     * getter for the number of flips made
+     * @return flips made so far
+     */
+    public long getFlips(){
+        return flips;
+    }
+
+    /**
+     * gives every symbol the value it has in the solution that was found.  This must not be
+     * called while DPLL is still assigning the symbols.
+     */
+    public void copyToSymbols(){
+        for(int i = 0; i < symbols.length; i ++){
+            symbols[i].setValue(assignment[i]);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+import java.util.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+/**
+ * Reads the memory mapped input written by part 1's MappedClauseWriter in place.  The file is
+ * mapped read only, and the binary clauses, which are nearly all of the clauses, are never
+ * turned into Clause or Literal objects, or copied onto the heap at all: BinaryImplications
+ * follows the edges of the implication index in the file (see getEdgeStart() and
+ * getEdgeTarget()).  Only the few long clauses become Clause objects.  The operating system
+ * keeps as much of the file in memory as it has room for, so the input may be larger than the
+ * memory given to Java.
+ *
+ * See MappedClauseWriter for a description of the layout.  A single mapping can hold at most
+ * 2GB, so the file is mapped in regions of MappedClauseWriter.REGION_SIZE bytes, and no int is
+ * split between two of them.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class MappedClauseStore{
+    public static final byte[] MAGIC = {'H', 'P', 'C', 'M'}; //first four bytes of every mapped CNF file
+    public static final int VERSION = 2; //only format version this reader understands
+    public static final int HEADER_SIZE = 40; //bytes before the binary clause block
+    public static final long REGION_SIZE = 1L << 30; //bytes mapped at a time; must match the writer
+
+    private MappedByteBuffer[] regions; //the whole file
+    private long size; //size of the file in bytes
+    private int numAtoms; //largest atom in any clause
+    private int numLong; //number of long clauses
+    private long numBinary; //number of binary clauses
+    private long longLiterals; //number of literals in the long clauses
+    private int footerLength; //length of the footer in bytes
+    private long indexStart; //position of the implication index's offsets
+    private long targetsStart; //position of the implication index's edge targets
+    private long footerStart; //position of the footer
+    private IntBuffer targetsView = null; //the edge targets, when they all lie in one region, or null
+    private Symbol[] symbolsByAtom; //symbols indexed by their atom number; null for atoms in no clause
+
+    /**
+     * checks whether a file begins with the magic bytes of the mapped format.
+     * @param f the file to check
+     * @return true if the file holds a mapped CNF
+     * @throws IOException if the file could not be read
+     */
+    public static boolean isMapped(File f) throws IOException{
+        FileInputStream in = new FileInputStream(f);
+        try{
+            for(int i = 0; i < MAGIC.length; i ++){
+                if(in.read() != MAGIC[i]){
+                    return false;
+                }
+            }
+            return true;
+        }
+        finally{
+            in.close();
+        }
+    }
+
+    /**
+     * constructor that maps the file and reads it's header.  The mapping stays valid after the
+     * file is closed, until the store is no longer used.
+     * @param f the file to map
+     * @throws IOException if the file could not be mapped or is not a supported mapped CNF
+     */
+    public MappedClauseStore(File f) throws IOException{
+        RandomAccessFile file = new RandomAccessFile(f, "r");
+        try{
+            FileChannel channel = file.getChannel();
+            size = channel.size();
+            if(size < HEADER_SIZE){
+                throw new IOException("The mapped CNF file ended early");
+            }
+            regions = new MappedByteBuffer[(int)((size + REGION_SIZE - 1) / REGION_SIZE)];
+            for(int i = 0; i < regions.length; i ++){
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, i * REGION_SIZE, Math.min(REGION_SIZE, size - i * REGION_SIZE));
+                regions[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        finally{
+            file.close();
+        }
+        for(int i = 0; i < MAGIC.length; i ++){
+            if(regions[0].get(i) != MAGIC[i]){
+                throw new IOException("The file is not a mapped CNF file");
+            }
+        }
+        if(getInt(4) != VERSION){
+            throw new IOException("Unsupported mapped CNF version " + getInt(4));
+        }
+        numAtoms = getInt(8);
+        numLong = getInt(12);
+        numBinary = getLong(16);
+        longLiterals = getLong(24);
+        footerLength = getInt(32);
+        indexStart = longStart() + 4 * ((long)numLong + longLiterals);
+        targetsStart = indexStart + 8 * (2 * ((long)numAtoms + 1) + 1);
+        footerStart = targetsStart + 4 * 2 * numBinary;
+        if(numAtoms < 0 || numLong < 0 || numBinary < 0 || longLiterals < 0 || footerLength < 0
+           || size != footerStart + footerLength){
+            throw new IOException("The size of the mapped CNF file does not match it's header");
+        }
+        if(getEdgeStart(2 * (numAtoms + 1)) != 2 * numBinary){
+            throw new IOException("The implication index of the mapped CNF file does not match it's header");
+        }
+        int region = (int)(targetsStart / REGION_SIZE);
+        if(footerStart <= (region + 1) * REGION_SIZE){ //searching reads the targets far more than anything else, so they get a view of their own
+            ByteBuffer block = regions[region].duplicate();
+            block.position((int)(targetsStart % REGION_SIZE));
+            block.limit((int)(footerStart - region * REGION_SIZE));
+            targetsView = block.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+    }
+
+    /**
+     * creates a symbol for every atom that appears in a clause, and a Clause object for every
+     * long clause.  The binary clauses are only looked at to find their atoms.
+     * @param symbols list to add every symbol to, in order of it's atom number (the same order the text format produces)
+     * @param clauses list to add every long clause to
+     * @return the footer text stored at the end of the file
+     * @throws IOException if a clause holds an atom outside of the range given in the header
+     */
+    public String read(ArrayList<Symbol> symbols, ArrayList<Clause> clauses) throws IOException{
+        symbolsByAtom = new Symbol[numAtoms + 1];
+        for(long i = 0; i < 2 * numBinary; i ++){
+            toLiteral(getInt(HEADER_SIZE + 4 * i));
+        }
+
+        long position = longStart();
+        Literal[] literals;
+        for(int i = 0; i < numLong; i ++){
+            literals = new Literal[getInt(position)];
+            position += 4;
+            for(int j = 0; j < literals.length; j ++){
+                literals[j] = toLiteral(getInt(position));
+                position += 4;
+            }
+            clauses.add(new Clause(literals));
+        }
+
+        for(int atom = 1; atom <= numAtoms; atom ++){
+            if(symbolsByAtom[atom] != null){
+                symbols.add(symbolsByAtom[atom]);
+            }
+        }
+
+        byte[] footer = new byte[footerLength];
+        for(int i = 0; i < footer.length; i ++){
+            footer[i] = getByte(footerStart + i);
+        }
+        return new String(footer, "UTF-8");
+    }
+
+    /**
+     * turns a signed integer literal into a Literal, creating it's symbol if needed.
+     * @param literal the atom number, negative if the atom is flipped
+     * @return the matching Literal
+     * @throws IOException if the atom is outside of the range given in the header
+     */
+    private Literal toLiteral(int literal) throws IOException{
+        int atom = Math.abs(literal);
+        if(atom == 0 || atom >= symbolsByAtom.length){
+            throw new IOException("Atom " + atom + " is outside of the range given in the header");
+        }
+        if(symbolsByAtom[atom] == null){
+            symbolsByAtom[atom] = new Symbol(atom);
+        }
+        return new Literal(symbolsByAtom[atom], literal < 0);
+    }
+
+    /**
+     * getter for the number of binary clauses
+     * @return the number of binary clauses in the file
+     */
+    public long getNumBinary(){
+        return numBinary;
+    }
+
+    /**
+     * finds where the edges of a literal start in the implication index.  The edges of literal l
+     * end where those of literal l + 1 start.
+     * @param literal 2 * atom, plus 1 for the atom's negation
+     * @return the number of the literal's first edge
+     */
+    public long getEdgeStart(int literal){
+        return getLong(indexStart + 8L * literal);
+    }
+
+    /**
+     * reads the literal an edge of the implication index reaches.
+     * @param edge the number of the edge
+     * @return the atom number, negative if the atom is flipped
+     */
+    public int getEdgeTarget(long edge){
+        if(targetsView != null){
+            return targetsView.get((int)edge);
+        }
+        return getInt(targetsStart + 4 * edge);
+    }
+
+    /**
+     * finds where the long clause block starts.
+     * @return the position of the long clause block
+     */
+    private long longStart(){
+        return HEADER_SIZE + 8 * numBinary;
+    }
+
+    /**
+     * reads an int from the mapping.
+     * @param position the position of the int in the file; a multiple of four
+     * @return the int
+     */
+    private int getInt(long position){
+        return regions[(int)(position / REGION_SIZE)].getInt((int)(position % REGION_SIZE));
+    }
+
+    /**
+     * reads a long written as two ints, lowest first.
+     * @param position the position of the long in the file
+     * @return the long
+     */
+    private long getLong(long position){
+        return (getInt(position) & 0xFFFFFFFFL) | ((long)getInt(position + 4) << 32);
+    }
+
+    /**
+     * reads a byte from the mapping.
+     * @param position the position of the byte in the file
+     * @return the byte
+     */
+    private byte getByte(long position){
+        return regions[(int)(position / REGION_SIZE)].get((int)(position % REGION_SIZE));
+    }
+}
@@ -8,7 +8,12 @@ import java.util.*;
  */
 public class Model{
     private ArrayList<Symbol> model = new ArrayList<Symbol>(); //list of altered Symbols
+    private ArrayList<Boolean> untried = new ArrayList<Boolean>(); //for each altered symbol, true if it was a guess whose other value has not been tried
     private ArrayList<Clause> clauses; //list of clauses
+    private ArrayList<CardinalityConstraint> constraints = new ArrayList<CardinalityConstraint>(); //list of cardinality constraints
+    private HashMap<Symbol, ArrayList<CardinalityConstraint>> constraintsOf = new HashMap<Symbol, ArrayList<CardinalityConstraint>>(); //the constraints each symbol is in
+    private int constraintHead = 0; //position in the model up to which symbols have been looked at for forced values
+    private BinaryImplications implications = null; //two literal clauses kept apart from the clause list, or null
     private Boolean hasSolution; //true if a solution exists, false if any clause is false, null otherwise
     private Boolean Updated; //is the model up to date after an add or remove?
 
@@ -30,13 +35,122 @@ public class Model{
     public void add(Symbol s, boolean setTo){
         s.setValue(setTo);
         model.add(s);
+        untried.add(false);
         Updated = false;
     }
 
+    /**
+     * this method adds a guessed symbol to the model, whose other value
+     * will be tried if this one fails.  Otherwise it is the same as add().
+     * @param s the symbol to be added
+     * @param setTo the boolean to set s to
+     */
+    public void addGuess(Symbol s, boolean setTo){
+        add(s, setTo);
+        untried.set(untried.size() - 1, true);
+    }
+
+    /**
+     * sets the implication graph holding the two literal clauses that were taken out of the clause list.
+     * @param implications the implication graph
+     */
+    public void setImplications(BinaryImplications implications){
+        this.implications = implications;
+        Updated = false;
+    }
+
+    /**
+     * sets the cardinality constraints that must hold along with the clauses.
+     * @param constraints a list of cardinality constraints in the model
+     */
+    public void setConstraints(ArrayList<CardinalityConstraint> constraints){
+        this.constraints = constraints;
+        constraintsOf = new HashMap<Symbol, ArrayList<CardinalityConstraint>>();
+        constraintHead = 0;
+        Symbol[] constrained;
+        ArrayList<CardinalityConstraint> list;
+        for(int i = 0; i < constraints.size(); i ++){
+            constrained = constraints.get(i).getSymbols();
+            for(int j = 0; j < constrained.length; j ++){
+                list = constraintsOf.get(constrained[j]);
+                if(list == null){
+                    list = new ArrayList<CardinalityConstraint>();
+                    constraintsOf.put(constrained[j], list);
+                }
+                list.add(constraints.get(i));
+            }
+        }
+        Updated = false;
+    }
+
+    /**
+     * finds the constraints that may force a value because one of their symbols was given a
+     * value since the last call.  Only those constraints are looked at, instead of all of them.
+     * Symbols taken out of the model by removeRecent() are looked at again when they come back.
+     * @return every constraint with a symbol added since the last call, each listed once
+     */
+    public ArrayList<CardinalityConstraint> takeChangedConstraints(){
+        LinkedHashSet<CardinalityConstraint> changed = new LinkedHashSet<CardinalityConstraint>();
+        ArrayList<CardinalityConstraint> list;
+        while(constraintHead < model.size()){
+            list = constraintsOf.get(model.get(constraintHead ++));
+            if(list != null){
+                changed.addAll(list);
+            }
+        }
+        return new ArrayList<CardinalityConstraint>(changed);
+    }
+
+    /**
+     * this method adds a new clause to the model, such as one found
+     * by the solver during the search.  The clause is added to the same list
+     * the model was created with, and the model is marked as out of date.
+     * @param c the clause to add
+     */
+    public void addClause(Clause c){
+        clauses.add(c);
+        Updated = false;
+    }
+
+    /**
+     * getter for the number of symbols that have been assigned
+     * @return the number of symbols in the model
+     */
+    public int size(){
+        return model.size();
+    }
+
     public int mostRecent(){
         return model.get(model.size() - 1).getName();
     }
 
+    /**
+     * getter for a symbol in the model, in the order they were added
+     * @param i position of the symbol in the model
+     * @return the symbol
+     */
+    public Symbol get(int i){
+        return model.get(i);
+    }
+
+    /**
+     * finds where a symbol is in the model
+     * @param s the symbol to look for
+     * @return the position of the symbol in the order they were added, or -1 if it has no value
+     */
+    public int indexOf(Symbol s){
+        return model.indexOf(s);
+    }
+
+    /**
+     * tells whether a symbol in the model was a guess whose other value has not been tried
+     * @param i position of the symbol in the model
+     * @return true if the symbol was added with addGuess()
+     */
+    public boolean hasUntriedValue(int i){
+        return untried.get(i);
+    }
+
     /**
      * this method removes the most recent symbol that was added to the model
      * and sets it's truth value back to null.  It will not update the clauses
@@ -44,13 +158,18 @@ public class Model{
      */
     public void removeRecent(){
         Symbol s = model.remove(model.size() - 1);
+        untried.remove(untried.size() - 1);
         s.setValue(null);
+        if(implications != null){
+            implications.backtrack(model.size());
+        }
+        constraintHead = Math.min(constraintHead, model.size());
         Updated = false;
     }
 
     /**
      * this method looks for a solution; e.g. it makes a call
-     * to update every clasue within the model and checks if there is
+     * to update every clasue, cardinality constraint and two literal clause within the model and checks if there is
      * a solution.  This will set the "isSolution" boolean.
      */
     private void lookForSolution(){
@@ -67,6 +186,27 @@ public class Model{
                 return;
             }
         }
+        for(int i = 0; i < constraints.size(); i ++){ //cardinality constraints are checked the same way
+            temp = constraints.get(i).updateConstraint();
+            if(temp == null){
+                solved = null;
+            }
+            else if(!temp){
+                hasSolution = false;
+                Updated = true;
+                return;
+            }
+        }
+        if(implications != null){ //so are the two literal clauses, though only a true model needs every one of them looked at
+            if(implications.hasConflict(this)){
+                hasSolution = false;
+                Updated = true;
+                return;
+            }
+            if(solved != null && !implications.allSatisfied()){
+                solved = null;
+            }
+        }
         Updated = true;
         hasSolution = solved;
     }
@@ -78,12 +218,12 @@ public class Model{
      * @return true if there is a solution, false if any clause is false, null otherwise
      */
     public Boolean hasSolution(){
+        if(Updated == null || !Updated){ //done even when nothing is assigned, so a restarted search does not see the clauses as they were before it backed up
+            lookForSolution();
+        }
         if(model.size() == 0){
             return null;
         }
-        if(!Updated){
-            lookForSolution();
-        }
         return hasSolution;
     }
 }
\ No newline at end of file
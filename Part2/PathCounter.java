@@ -0,0 +1,121 @@
+/**
+ * Counts the Hamiltonian paths of a small graph without searching for them one at a time.
+ * The number of paths that visit exactly the vertices of a subset and end at a given vertex
+ * is the sum, over every vertex of the subset with an edge to that end, of the number of
+ * paths that visit the rest of the subset and end there.  Working through the subsets from
+ * the smallest up fills in a table of these counts, and the paths of the whole graph are the
+ * counts for the full subset, added up over every end.
+ *
+ * The table holds one long for every subset and end, so the graph may have at most
+ * MAX_VERTICES vertices.  The time taken is about 2^n * n * n steps, no matter how many paths
+ * there are, which is far less than enumerating them once the graph has many.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class PathCounter{
+    public static final int MAX_VERTICES = 20; //the table for 20 vertices takes 160MB
+
+    private int numVertices; //number of vertices in the graph
+    private int[] predecessors; //predecessors[v] has bit u set if there is an edge from u to v
+    private long[] table; //table[subset * numVertices + end] is the number of paths through exactly subset that end at end
+
+    /**
+     * constructor that reads the edges of the graph from the footer.
+     * @param graph the graph from the footer; it may have at most MAX_VERTICES vertices
+     */
+    public PathCounter(GraphFooter graph){
+        numVertices = graph.getNumVertices();
+        predecessors = new int[numVertices];
+        for(int start = 0; start < numVertices; start ++){
+            for(int end = 0; end < numVertices; end ++){
+                if(start != end && graph.hasEdge(start, end)){
+                    predecessors[end] |= 1 << start;
+                }
+            }
+        }
+    }
+
+    /**
+     * checks whether a graph is small enough to be counted.
+     * @param graph the graph from the footer
+     * @return true if the graph has at most MAX_VERTICES vertices
+     */
+    public static boolean canCount(GraphFooter graph){
+        return graph.getNumVertices() <= MAX_VERTICES;
+    }
+
+    /**
+     * fills in the table and counts the Hamiltonian paths.  Every path is counted once from
+     * it's first vertex, so a path and it's reverse are counted separately.
+     * @return the number of Hamiltonian paths in the graph
+     */
+    public long count(){
+        if(numVertices == 0){
+            return 0;
+        }
+        table = new long[(1 << numVertices) * numVertices];
+        for(int v = 0; v < numVertices; v ++){ //every vertex on it's own is a path
+            table[(1 << v) * numVertices + v] = 1;
+        }
+        int full = (1 << numVertices) - 1;
+        long paths;
+        int before;
+        int rest;
+        for(int subset = 1; subset <= full; subset ++){
+            if((subset & (subset - 1)) == 0){ //single vertices were filled in above
+                continue;
+            }
+            for(int end = 0; end < numVertices; end ++){
+                if((subset & (1 << end)) == 0){
+                    continue;
+                }
+                rest = subset & ~(1 << end);
+                before = rest & predecessors[end]; //vertices of the rest that have an edge to end
+                paths = 0;
+                while(before != 0){
+                    paths += table[rest * numVertices + Integer.numberOfTrailingZeros(before)];
+                    before &= before - 1;
+                }
+                table[subset * numVertices + end] = paths;
+            }
+        }
+        paths = 0;
+        for(int end = 0; end < numVertices; end ++){
+            paths += table[full * numVertices + end];
+        }
+        return paths;
+    }
+
+    /**
+     * follows the table filled in by count() back from the full subset to find one of the paths.
+     * @return the vertices of a Hamiltonian path in order, or null if there is none
+     */
+    public int[] getPath(){
+        if(table == null){
+            return null;
+        }
+        int[] path = new int[numVertices];
+        int subset = (1 << numVertices) - 1;
+        int end = -1;
+        for(int v = 0; v < numVertices && end < 0; v ++){
+            if(table[subset * numVertices + v] > 0){
+                end = v;
+            }
+        }
+        if(end < 0){
+            return null;
+        }
+        int before;
+        for(int i = numVertices - 1; i > 0; i --){ //walk back one vertex at a time, always to a subset that still has a path
+            path[i] = end;
+            subset &= ~(1 << end);
+            before = subset & predecessors[end];
+            while(table[subset * numVertices + Integer.numberOfTrailingZeros(before)] == 0){
+                before &= before - 1;
+            }
+            end = Integer.numberOfTrailingZeros(before);
+        }
+        path[0] = end;
+        return path;
+    }
+}
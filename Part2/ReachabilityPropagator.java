@@ -0,0 +1,138 @@
+import java.util.*;
+/**
+ * This class lets DPLL reason about the graph behind the clauses, using the vertex,
+ * position and edge information from the footer.  The positions from 1 onward that all
+ * have a vertex assigned form the start of a path.  Every vertex not on that path still
+ * has to be visited after it, using only edges between the end of the path and the
+ * unvisited vertices.  If one of those vertices cannot be reached from the end of the path,
+ * cannot be reached in time for a position it was already given, or if more than one of
+ * them has no edge to another unvisited vertex (only the last vertex of a path may), then
+ * no Hamiltonian path starts this way.
+ *
+ * When that happens, check() returns an explanation clause saying that the start of the path
+ * (and the late position, if that was the problem) cannot all be true.  This clause follows
+ * from the graph, so DPLL may keep it for the rest of the search.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class ReachabilityPropagator{
+    private GraphFooter graph; //vertex, position and edge information from the footer
+    private int numVertices; //number of vertices in the graph
+    private int conflicts = 0; //number of explanation clauses returned so far
+
+    /**
+     * constructor that sets the graph to check against
+     * @param graph the graph read from the footer
+     */
+    public ReachabilityPropagator(GraphFooter graph){
+        this.graph = graph;
+        this.numVertices = graph.getNumVertices();
+    }
+
+    /**
+     * checks whether the current assignment can still be completed into a Hamiltonian path.
+     * @return an explanation clause if it cannot, or null if no problem was found
+     */
+    public Clause check(){
+        int[] trueAt = new int[numVertices + 1]; //vertex true at each time, or -1
+        int[] timeOf = new int[numVertices]; //time each vertex is true at, or 0
+        Arrays.fill(trueAt, -1);
+        for(int vertex = 0; vertex < numVertices; vertex ++){
+            for(int time = 1; time <= numVertices; time ++){
+                if(graph.isTrue(vertex, time)){
+                    trueAt[time] = vertex;
+                    timeOf[vertex] = time;
+                }
+            }
+        }
+
+        int end = 0; //last time of the path start
+        while(end < numVertices && trueAt[end + 1] >= 0){
+            end ++;
+        }
+        if(end == 0 || end == numVertices){
+            return null;
+        }
+
+        boolean[] remaining = new boolean[numVertices]; //vertices still to be visited after the path start
+        Arrays.fill(remaining, true);
+        for(int time = 1; time <= end; time ++){
+            remaining[trueAt[time]] = false;
+        }
+
+        int[] distance = new int[numVertices]; //number of steps from the end of the path start, or -1
+        Arrays.fill(distance, -1);
+        int[] queue = new int[numVertices];
+        int head = 0;
+        int tail = 0;
+        int current;
+        queue[tail ++] = trueAt[end];
+        distance[trueAt[end]] = 0;
+        while(head < tail){ //breadth first search through the unvisited vertices
+            current = queue[head ++];
+            for(int next = 0; next < numVertices; next ++){
+                if(remaining[next] && distance[next] < 0 && graph.hasEdge(current, next)){
+                    distance[next] = distance[current] + 1;
+                    queue[tail ++] = next;
+                }
+            }
+        }
+
+        int deadEnds = 0;
+        boolean hasSuccessor;
+        for(int vertex = 0; vertex < numVertices; vertex ++){
+            if(!remaining[vertex]){
+                continue;
+            }
+            if(distance[vertex] < 0){ //can never be reached
+                return explain(trueAt, end, -1);
+            }
+            if(timeOf[vertex] > end && distance[vertex] > timeOf[vertex] - end){ //cannot be reached by the time it was given
+                return explain(trueAt, end, vertex);
+            }
+            hasSuccessor = false;
+            for(int next = 0; next < numVertices && !hasSuccessor; next ++){
+                hasSuccessor = remaining[next] && next != vertex && graph.hasEdge(vertex, next);
+            }
+            if(!hasSuccessor){
+                deadEnds ++;
+                if(deadEnds > 1){ //only the last vertex of the path may have nowhere to go
+                    return explain(trueAt, end, -1);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * builds the clause saying that the path start cannot all be true, along with the
+     * given vertex at it's assigned time if one is given.
+     * @param trueAt vertex true at each time
+     * @param end last time of the path start
+     * @param late a vertex that could not be reached by it's assigned time, or -1
+     * @return the explanation clause
+     */
+    private Clause explain(int[] trueAt, int end, int late){
+        ArrayList<Literal> literals = new ArrayList<Literal>(end + 1);
+        for(int time = 1; time <= end; time ++){
+            literals.add(new Literal(graph.getSymbol(trueAt[time], time), true));
+        }
+        if(late >= 0){
+            for(int time = end + 1; time <= numVertices; time ++){
+                if(graph.isTrue(late, time)){
+                    literals.add(new Literal(graph.getSymbol(late, time), true));
+                }
+            }
+        }
+        conflicts ++;
+        return new Clause(literals.toArray(new Literal[literals.size()]));
+    }
+
+    /**
+     * getter for the number of conflicts found so far
+     * @return the number of explanation clauses returned
+     */
+    public int getConflicts(){
+        return conflicts;
+    }
+}
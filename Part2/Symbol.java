@@ -8,6 +8,7 @@
 public class Symbol implements Comparable<Symbol>{
     private int name; //name of the symbol (an int)
     private Boolean value = null; //truth value assigned to the symbol
+    private boolean phase = true; //truth value DPLL tries first when it has to guess this symbol
 
     /**
      * constructor that parses a string for the integer name
@@ -58,6 +59,23 @@ public class Symbol implements Comparable<Symbol>{
         return this.value;
     }
 
+    /**
+     * sets the truth value DPLL tries first when it has to guess this symbol's value,
+     * such as the value it had in an earlier solution.
+     * @param phase the value to try first
+     */
+    public void setPhase(boolean phase){
+        this.phase = phase;
+    }
+
+    /**
+     * getter for the truth value DPLL tries first when guessing this symbol.
+     * @return true unless setPhase() said otherwise
+     */
+    public boolean getPhase(){
+        return phase;
+    }
+
     /**
      * getter for a symbol's name
      * @return an integer denoting the symbol's name
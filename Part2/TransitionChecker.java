@@ -0,0 +1,85 @@
+import java.util.*;
+/**
+ * This class supports the lazy mode of DPLL, where part 1 leaves out the clauses that
+ * forbid following an edge that does not exist.  Instead of reading those clauses,
+ * the solver calls this class to compare the current assignment against the edges
+ * listed in the footer.  Whenever two vertices are true at consecutive positions without
+ * an edge between them, the one clause that forbids that step is added to the model.
+ * Only the clauses that the search actually runs into are ever created.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class TransitionChecker{
+    private GraphFooter graph; //vertex, position and edge information from the footer
+    private int added = 0; //number of clauses added so far
+    private int backjumpLevel = -1; //position in the model that the last call's clauses need the search to back up to
+
+    /**
+     * constructor that sets the graph to check against
+     * @param graph the graph read from the footer
+     */
+    public TransitionChecker(GraphFooter graph){
+        this.graph = graph;
+    }
+
+    /**
+     * looks for vertices that are true at consecutive positions without an edge between them,
+     * and adds a clause to the model for each one found.  Works on partial assignments as well as full ones.
+     * Each clause stays false until the later of it's two atoms is taken back, so the search
+     * can back up to the first position in the model where that is true for one of them (see
+     * getBackjumpLevel()).
+     * @param model the model to check and add clauses to
+     * @return the number of clauses that were added
+     */
+    public int addViolated(Model model){
+        int numVertices = graph.getNumVertices();
+        int[] trueAt = new int[numVertices + 1]; //vertex true at each time, or -1
+        Arrays.fill(trueAt, -1);
+        for(int vertex = 0; vertex < numVertices; vertex ++){
+            for(int time = 1; time <= numVertices; time ++){
+                if(graph.isTrue(vertex, time)){
+                    trueAt[time] = vertex; //other clauses forbid two vertices at one time
+                }
+            }
+        }
+
+        int found = 0;
+        int start;
+        int end;
+        Symbol first;
+        Symbol second;
+        backjumpLevel = Integer.MAX_VALUE;
+        for(int time = 1; time < numVertices; time ++){
+            start = trueAt[time];
+            end = trueAt[time + 1];
+            if(start < 0 || end < 0 || start == end || graph.hasEdge(start, end)){
+                continue;
+            }
+            first = graph.getSymbol(start, time);
+            second = graph.getSymbol(end, time + 1);
+            model.addClause(new Clause(new Literal[]{new Literal(first, true), new Literal(second, true)}));
+            backjumpLevel = Math.min(backjumpLevel, Math.max(model.indexOf(first), model.indexOf(second)));
+            found ++;
+        }
+        added += found;
+        return found;
+    }
+
+    /**
+     * getter for where the search has to back up to after the last call to addViolated().  Every
+     * value given after this position leaves one of the added clauses false, so there is no
+     * point trying the other value of any of them.
+     * @return the position in the model of the latest atom of the added clause that became false first
+     */
+    public int getBackjumpLevel(){
+        return backjumpLevel;
+    }
+
+    /**
+     * getter for the number of clauses this checker has added
+     * @return the total number of clauses added
+     */
+    public int getAdded(){
+        return added;
+    }
+}
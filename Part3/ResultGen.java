@@ -27,12 +27,13 @@ public class ResultGen{
     /**
      * This method opens the DPLL output file and translates the
      * text into the solution. If the first line of the file is 0,
-     * it returns null to signify there is no solution.  Otherwise, it first hashes
-     * each atom number to it's truth value, and then creates an entry
-     * for any Vertices Position pair whose corresponding atom number was
-     * hashed to true.  This entry array is sorted and returned.
+     * it returns null to signify there is no solution.  Otherwise, it first marks
+     * each true atom number in an array indexed by atom, and then streams the footer,
+     * placing an entry for any Vertices Position pair whose atom is true directly at
+     * it's position in the path.  Both the full "atom T/F" listing and the sparse
+     * listing of only the true atoms (first line "s") are understood.
      * @param args Command line arguments which should specify the DPLL output file
-     * @return null if there is no solution, or a sorted entries array if there is one.
+     * @return null if there is no solution, or the entries of the path in order if there is one.
      */
     public static ArrayList<Entry> readInput(String [] args){
         if(args.length < 1){
@@ -42,43 +43,86 @@ public class ResultGen{
 
         File f = new File(args[0]);
         try{
-            Scanner scan = new Scanner(f);
-            String line;
-            String[] splitLine;
-            line = scan.nextLine();
-            HashMap<Integer, Boolean> truths = new HashMap<Integer, Boolean>();
-            if(line.equals("0")){ //no solution
-                return null;
-            }
-
-            while(!(line.equals("0"))){ //hash each atom number to it's truth value
-                splitLine = line.split(" ");
-                if(splitLine[1].equals("F")){
-                    truths.put(Integer.parseInt(splitLine[0]), false);
-                }
-                else{
-                    truths.put(Integer.parseInt(splitLine[0]), true);
-                }
-                line = scan.nextLine();
-            }
-
-            int index;
-            ArrayList<Entry> entries = new ArrayList<Entry>();
-            while(scan.hasNextLine()){ //make entries for any atom verticies position pair if the atom number hashes to true
-                line = scan.nextLine();
-                splitLine = line.split(" ");
-                index = Integer.parseInt(splitLine[0]);
-                if(truths.get(index) == true){
-                    entries.add(new Entry(splitLine[1], Integer.parseInt(splitLine[2])));
-                }
-            }
-            Collections.sort(entries); //sort and return.
+            BufferedReader read = new BufferedReader(new FileReader(f), 1 << 16);
+            ArrayList<Entry> entries = decode(read);
+            read.close();
             return entries;
         }
         catch(FileNotFoundException e){
             System.err.println("Error: The file \"" + args[0] + "\" could not be found.\nTerminating...\n");
             System.exit(1);
         }
+        catch(IOException e){
+            System.err.println("Error: The file \"" + args[0] + "\" could not be read.\nTerminating...\n");
+            System.exit(1);
+        }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * translates DPLL output into the solution path, as described in readInput().
+     * @param read reader positioned at the start of the DPLL output
+     * @return null if there is no solution, or the entries of the path in order if there is one.
+     * @throws IOException if the output could not be read
+     */
+    public static ArrayList<Entry> decode(BufferedReader read) throws IOException{
+        String line = read.readLine();
+        if(line == null || line.equals("0")){ //no solution
+            return null;
+        }
+
+        boolean[] truths = new boolean[64]; //truths[atom] is true if the atom is true; grows as needed
+        int numTrue = 0;
+        int atom;
+        boolean sparse = line.equals("s");
+        if(sparse){
+            line = read.readLine();
+        }
+        while(line != null && !(line.equals("0"))){ //mark each true atom number
+            if(sparse){
+                atom = Integer.parseInt(line.trim());
+            }
+            else if(line.charAt(line.length() - 1) == 'T'){
+                atom = Integer.parseInt(line.substring(0, line.indexOf(' ')));
+            }
+            else{
+                line = read.readLine();
+                continue;
+            }
+            if(atom >= truths.length){
+                truths = Arrays.copyOf(truths, Math.max(atom + 1, truths.length * 2));
+            }
+            truths[atom] = true;
+            numTrue ++;
+            line = read.readLine();
+        }
+
+        Entry[] path = new Entry[numTrue]; //a solution has exactly one true atom per position
+        int firstSpace;
+        int secondSpace;
+        int position;
+        while((line = read.readLine()) != null){ //stream the footer, keeping the atoms that are true
+            if(line.startsWith("e ") || line.equals("lazy")){ //edge lines and the lazy mark come after every atom line
+                break;
+            }
+            firstSpace = line.indexOf(' ');
+            atom = Integer.parseInt(line.substring(0, firstSpace));
+            if(atom >= truths.length || !truths[atom]){
+                continue;
+            }
+            secondSpace = line.lastIndexOf(' ');
+            position = Integer.parseInt(line.substring(secondSpace + 1));
+            if(position >= 1 && position <= path.length){
+                path[position - 1] = new Entry(line.substring(firstSpace + 1, secondSpace), position);
+            }
+        }
+
+        ArrayList<Entry> entries = new ArrayList<Entry>(path.length);
+        for(int i = 0; i < path.length; i ++){ //positions are already in order
+            if(path[i] != null){
+                entries.add(path[i]);
+            }
+        }
+        return entries;
+    }
+}
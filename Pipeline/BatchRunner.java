@@ -0,0 +1,425 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+/**
+ * This class solves many graphs in one go, running several jobs at once.  Each job runs
+ * ClauseGen, DPLL and ResultGen as separate programs, exactly as they would be run by hand,
+ * but with it's own file names (given with --out=) so that jobs can share a directory.  A job
+ * is named after it's graph file's path relative to the manifest (or directory), with ".txt"
+ * taken off and each folder joined by "_", so a/g.txt is named a_g.  Two graphs that would get
+ * the same name are refused before any job starts, since one would overwrite the other's files.
+ * For a job named g, the output directory ends up holding:
+ *
+ *   g.cnf         the DPLL input
+ *   g.results     the DPLL output
+ *   g.out         what ResultGen printed
+ *   g.log         anything ClauseGen or DPLL printed as an error or warning
+ *   g.checkpoint  DPLL's checkpoint, if --checkpoint or --resume was given
+ *   g.paths       every path DPLL found, if --all was given (or --count, on a graph too large to count)
+ *
+ * ClauseGen and DPLL keep their state in static variables, so jobs must run in separate
+ * programs to run at the same time.  The longest jobs are started first, so that no long job
+ * is left running alone at the end.  How long a job will take is predicted from the size of
+ * it's DPLL input: with n vertices and m edges there are about n^3 clauses for the vertices
+ * and positions and (n^2 - m) * n for the missing edges, and a search may go n levels deep,
+ * so the cost is taken to be n times the number of clauses.  Results are printed as each job
+ * finishes.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class BatchRunner{
+    private File outputDirectory; //where each job's files are written
+    private File home; //directory holding the Part1, Part2 and Part3 folders
+    private String classpath; //class path every part is run with, or null to find each part's classes under home
+    private String[] clauseGenOptions; //flags given to ClauseGen
+    private String[] dpllOptions; //flags given to DPLL
+
+    /**
+     * Main method.  It solves every graph in the manifest or directory, printing each result as it finishes.
+     * @param args a manifest file listing one graph file per line, or a directory whose .txt files
+     *             are graphs, followed by optional flags: --output=directory (batch-output by default),
+     *             --jobs=number of jobs run at once (the number of processors by default),
+     *             --home=directory holding Part1, Part2 and Part3 (.. by default),
+     *             --classpath=path holding the classes of all three parts (found under the home
+     *             directory by default, see partClasspath()), and any flags of the three parts
+     */
+    public static void main(String[] args){
+        if(args.length < 1){
+            System.err.println("Error: usage is BatchRunner [manifest.txt|directory] [--output=directory] [--jobs=number] [--home=directory] [--classpath=path] [flags]\nTerminating...\n");
+            System.exit(1);
+        }
+        File output = new File("batch-output");
+        File home = new File("..");
+        String classpath = null;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        ArrayList<String> clauseGenFlags = new ArrayList<String>();
+        ArrayList<String> dpllFlags = new ArrayList<String>();
+        for(int i = 1; i < args.length; i ++){
+            if(args[i].startsWith("--output=")){
+                output = new File(args[i].substring(9));
+            }
+            else if(args[i].startsWith("--jobs=")){
+                jobs = Integer.parseInt(args[i].substring(7));
+            }
+            else if(args[i].startsWith("--home=")){
+                home = new File(args[i].substring(7));
+            }
+            else if(args[i].startsWith("--classpath=")){
+                classpath = args[i].substring(12);
+            }
+            else if(args[i].startsWith("--out=")){
+                System.err.println("Warning: option \"" + args[i] + "\" was ignored; each job gets it's own output files.");
+            }
+            else if(args[i].startsWith("--checkpoint=") || args[i].startsWith("--all=")){ //the flag is kept, but the name is replaced for each job
+                System.err.println("Warning: the file name in \"" + args[i] + "\" was ignored; each job gets it's own file.");
+                dpllFlags.add(args[i].substring(0, args[i].indexOf('=')));
+            }
+            else{
+                boolean known = false;
+                if(ClauseGen.setOption(args[i])){
+                    clauseGenFlags.add(args[i]);
+                    known = true;
+                }
+                if(DPLL.setOption(args[i])){
+                    dpllFlags.add(args[i]);
+                    known = true;
+                }
+                if(!known){
+                    System.err.println("Warning: unknown option \"" + args[i] + "\" was ignored.");
+                }
+            }
+        }
+        ClauseGen.resetOptions();
+        DPLL.resetOptions();
+
+        try{
+            File source = new File(args[0]);
+            ArrayList<File> graphs = listGraphs(source);
+            ArrayList<String> names = jobNames(graphs, source.isDirectory() ? source : source.getAbsoluteFile().getParentFile());
+            if(!output.isDirectory() && !output.mkdirs()){
+                throw new IOException("Could not create output directory " + output);
+            }
+            BatchRunner runner = new BatchRunner(output, home, classpath, clauseGenFlags.toArray(new String[0]), dpllFlags.toArray(new String[0]));
+            runner.run(graphs, names, jobs, new PrintWriter(new OutputStreamWriter(System.out, "UTF-8"), true));
+        }
+        catch(IllegalArgumentException e){
+            System.err.println("Error: " + e.getMessage() + "\nTerminating...\n");
+            System.exit(1);
+        }
+        catch(IOException e){
+            System.err.println("Error: " + e.getMessage() + "\nTerminating...\n");
+            System.exit(1);
+        }
+        catch(InterruptedException e){
+            System.err.println("Error: the batch was interrupted.\nTerminating...\n");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * finds the graph files to solve.
+     * @param source a directory, whose .txt files are taken in name order, or a manifest file
+     *               listing one graph file per line (relative to the manifest's directory)
+     * @return the graph files
+     * @throws IOException if the manifest could not be read
+     */
+    public static ArrayList<File> listGraphs(File source) throws IOException{
+        ArrayList<File> graphs = new ArrayList<File>();
+        if(source.isDirectory()){
+            File[] files = source.listFiles();
+            Arrays.sort(files);
+            for(int i = 0; i < files.length; i ++){
+                if(files[i].isFile() && files[i].getName().endsWith(".txt")){
+                    graphs.add(files[i]);
+                }
+            }
+            return graphs;
+        }
+        BufferedReader read = new BufferedReader(new FileReader(source));
+        String line;
+        File f;
+        while((line = read.readLine()) != null){
+            line = line.trim();
+            if(line.equals("") || line.startsWith("#")){
+                continue;
+            }
+            f = new File(line);
+            graphs.add(f.isAbsolute() ? f : new File(source.getAbsoluteFile().getParentFile(), line));
+        }
+        read.close();
+        return graphs;
+    }
+
+    /**
+     * names the job of each graph after it's path relative to the manifest's directory (or the
+     * directory of graphs), without ".txt" and with "_" between folders.  A graph outside that
+     * directory is named after it's file alone.
+     * @param graphs the graph files
+     * @param base the directory the names are relative to
+     * @return the name of each graph's job, in the same order
+     * @throws IllegalArgumentException if two graphs would get the same name
+     */
+    public static ArrayList<String> jobNames(ArrayList<File> graphs, File base){
+        String prefix = base.getAbsoluteFile().toPath().normalize().toString() + File.separator;
+        ArrayList<String> names = new ArrayList<String>();
+        HashMap<String, File> used = new HashMap<String, File>();
+        String path;
+        String name;
+        for(int i = 0; i < graphs.size(); i ++){
+            path = graphs.get(i).getAbsoluteFile().toPath().normalize().toString();
+            name = path.startsWith(prefix) ? path.substring(prefix.length()) : graphs.get(i).getName();
+            if(name.endsWith(".txt")){
+                name = name.substring(0, name.length() - 4);
+            }
+            name = name.replace(File.separatorChar, '_');
+            if(used.containsKey(name)){
+                throw new IllegalArgumentException("graphs " + used.get(name) + " and " + graphs.get(i) + " would both be written as "
+                                                   + name + ".*; rename one of them");
+            }
+            used.put(name, graphs.get(i));
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * predicts how long a graph will take to solve, from the number of vertices and edges in it's file.
+     * The number only has to put graphs in the right order, so it is not in any unit.
+     * @param graph the graph file
+     * @return n times the approximate number of clauses, or 0 if the file could not be read
+     */
+    public static double predictCost(File graph){
+        try{
+            BufferedReader read = new BufferedReader(new FileReader(graph));
+            String line = read.readLine();
+            long n = line == null ? 0 : Long.parseLong(line.trim());
+            long m = 0;
+            while((line = read.readLine()) != null){
+                if(!line.trim().equals("")){
+                    m ++;
+                }
+            }
+            read.close();
+            double clauses = (double)n * n * n + (double)Math.max(0, n * n - m) * n;
+            return clauses * n;
+        }
+        catch(IOException e){
+            return 0;
+        }
+        catch(NumberFormatException e){
+            return 0;
+        }
+    }
+
+    /**
+     * constructor that sets where the jobs are written and how each part is run.
+     * @param outputDirectory where each job's files are written
+     * @param home directory holding the Part1, Part2 and Part3 folders
+     * @param classpath class path every part is run with, or null to find each part's classes
+     *                  under the home directory
+     * @param clauseGenOptions flags given to ClauseGen
+     * @param dpllOptions flags given to DPLL
+     */
+    public BatchRunner(File outputDirectory, File home, String classpath, String[] clauseGenOptions, String[] dpllOptions){
+        this.outputDirectory = outputDirectory;
+        this.home = home;
+        this.classpath = classpath;
+        this.clauseGenOptions = clauseGenOptions;
+        this.dpllOptions = dpllOptions;
+    }
+
+    /**
+     * solves every graph, running up to the given number of jobs at once, longest predicted first.
+     * A line is printed for each graph as soon as it finishes, followed by a summary.
+     * @param graphs the graph files
+     * @param names the name of each graph's job, which it's files are named after (see jobNames())
+     * @param jobs number of jobs run at once
+     * @param output where the results are printed
+     * @throws InterruptedException if the batch was interrupted while waiting for jobs
+     */
+    public void run(ArrayList<File> graphs, ArrayList<String> names, int jobs, PrintWriter output) throws InterruptedException{
+        final double[] costs = new double[graphs.size()];
+        ArrayList<Integer> queue = new ArrayList<Integer>();
+        for(int i = 0; i < graphs.size(); i ++){
+            costs[i] = predictCost(graphs.get(i));
+            queue.add(i);
+        }
+        Collections.sort(queue, new Comparator<Integer>(){
+            public int compare(Integer a, Integer b){
+                return Double.compare(costs[b], costs[a]);
+            }
+        });
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, jobs));
+        CompletionService<String> finished = new ExecutorCompletionService<String>(pool); //hands back each job as it finishes
+        for(int i = 0; i < queue.size(); i ++){
+            final File graph = graphs.get(queue.get(i));
+            final String name = names.get(queue.get(i));
+            finished.submit(new Callable<String>(){
+                public String call(){
+                    return runJob(graph, name);
+                }
+            });
+        }
+        int failed = 0;
+        String result;
+        for(int i = 0; i < queue.size(); i ++){
+            try{
+                result = finished.take().get();
+            }
+            catch(ExecutionException e){
+                result = "Error: " + e.getCause();
+            }
+            if(result.contains("Error: ")){
+                failed ++;
+            }
+            output.println(result);
+        }
+        pool.shutdown();
+        output.printf("%d graphs in %.3f s with %d jobs at once, %d failed%n", queue.size(), (System.nanoTime() - start) / 1e9, jobs, failed);
+    }
+
+    /**
+     * runs the three parts on one graph.
+     * @param graph the graph file
+     * @param name the job's name, which it's files are named after
+     * @return a line giving the graph, what ResultGen printed, and how long the job took
+     */
+    String runJob(File graph, String name){
+        long start = System.nanoTime();
+        File cnf = new File(outputDirectory, name + ".cnf");
+        File results = new File(outputDirectory, name + ".results");
+        File printed = new File(outputDirectory, name + ".out");
+        File log = new File(outputDirectory, name + ".log");
+        log.delete();
+        try{
+            ArrayList<String> command = javaCommand("Part1", "ClauseGen", graph.getPath(), clauseGenOptions);
+            command.add("--out=" + cnf.getPath());
+            if(!runPart(command, null, log)){
+                return graph + ": Error: ClauseGen failed, see " + log;
+            }
+            command = javaCommand("Part2", "DPLL", cnf.getPath(), jobOptions(name));
+            command.add("--out=" + results.getPath());
+            if(!runPart(command, null, log) || !results.isFile()){
+                return graph + ": Error: DPLL failed, see " + log;
+            }
+            runPart(javaCommand("Part3", "ResultGen", results.getPath(), new String[0]), printed, log); //ResultGen fails when there is no solution
+            String answer = readAnswer(printed);
+            if(log.length() > 0 && Pipeline.readFile(log).contains("ran out of time")){ //DPLL writes no solution when it gives up
+                answer = "Out of time!";
+            }
+            if(answer == null){
+                return graph + ": Error: ResultGen printed no answer, see " + log;
+            }
+            return String.format("%s: %s (%.3f s)", graph, answer, (System.nanoTime() - start) / 1e9);
+        }
+        catch(IOException e){
+            return graph + ": Error: " + e.getMessage();
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            return graph + ": Error: interrupted";
+        }
+    }
+
+    /**
+     * gives the DPLL flags of one job, with the checkpoint and the file of every path named
+     * after the job, so that jobs running at once do not write over each other's files.
+     * @param name the job's name
+     * @return the flags for the job's DPLL
+     */
+    private String[] jobOptions(String name){
+        boolean checkpoint = false;
+        boolean paths = false;
+        ArrayList<String> options = new ArrayList<String>();
+        for(int i = 0; i < dpllOptions.length; i ++){
+            if(dpllOptions[i].equals("--checkpoint") || dpllOptions[i].startsWith("--checkpoint=")){
+                checkpoint = true;
+            }
+            else if(dpllOptions[i].equals("--all") || dpllOptions[i].startsWith("--all=")){
+                paths = true;
+            }
+            else{
+                checkpoint = checkpoint || dpllOptions[i].equals("--resume"); //resuming reads the checkpoint, even without --checkpoint
+                paths = paths || dpllOptions[i].equals("--count"); //a graph too large to count has it's paths written
+                options.add(dpllOptions[i]);
+            }
+        }
+        if(checkpoint){
+            options.add("--checkpoint=" + new File(outputDirectory, name + ".checkpoint").getPath());
+        }
+        if(paths){
+            options.add("--all=" + new File(outputDirectory, name + ".paths").getPath());
+        }
+        return options.toArray(new String[0]);
+    }
+
+    /**
+     * builds the command that runs one part in a new Java program.
+     * @param folder folder of the part, inside the home directory
+     * @param program the part's main class
+     * @param input the part's input file
+     * @param options flags for the part
+     * @return the command
+     */
+    private ArrayList<String> javaCommand(String folder, String program, String input, String[] options){
+        ArrayList<String> command = new ArrayList<String>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        command.add("-cp");
+        command.add(classpath != null ? classpath : partClasspath(folder));
+        command.add(program);
+        command.add(input);
+        command.addAll(Arrays.asList(options));
+        return command;
+    }
+
+    /**
+     * finds the classes of one part under the home directory.  A Maven build puts them in the
+     * part's target/classes folder, and javac, as the README runs it, puts them next to the sources.
+     * @param folder folder of the part, inside the home directory
+     * @return the part's target/classes folder if it exists, or else the part's folder
+     */
+    private String partClasspath(String folder){
+        File built = new File(new File(new File(home, folder), "target"), "classes");
+        if(built.isDirectory()){
+            return built.getPath();
+        }
+        return new File(home, folder).getPath();
+    }
+
+    /**
+     * runs one part and waits for it to finish.  It's errors are added to the job's log.
+     * @param command the command that runs the part
+     * @param printed file to save what the part prints, or null to throw it away
+     * @param log the job's log file
+     * @return true if the part finished without an error
+     * @throws IOException if the part could not be started
+     * @throws InterruptedException if the job was interrupted while waiting
+     */
+    private static boolean runPart(ArrayList<String> command, File printed, File log) throws IOException, InterruptedException{
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectOutput(printed == null ? ProcessBuilder.Redirect.DISCARD : ProcessBuilder.Redirect.to(printed));
+        builder.redirectError(ProcessBuilder.Redirect.appendTo(log));
+        return builder.start().waitFor() == 0 && (log.length() == 0 || !Pipeline.readFile(log).contains("Error: "));
+    }
+
+    /**
+     * finds the answer among the lines ResultGen printed.
+     * @param printed the file holding what ResultGen printed
+     * @return the "Solution: [...]" or "No Solution!" line, or null if there was neither
+     * @throws IOException if the file could not be read
+     */
+    private static String readAnswer(File printed) throws IOException{
+        BufferedReader read = new BufferedReader(new FileReader(printed));
+        String line;
+        String answer = null;
+        while((line = read.readLine()) != null){
+            if(line.startsWith("Solution: ") || line.startsWith("No Solution!")){
+                answer = line;
+            }
+        }
+        read.close();
+        return answer;
+    }
+}
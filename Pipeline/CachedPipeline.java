@@ -0,0 +1,129 @@
+import java.util.*;
+import java.io.*;
+/**
+ * This class puts a ResultCache in front of the Pipeline.  Each graph is given a
+ * GraphFingerprint; if the cache already holds an answer for that canonical form, the
+ * stored path is mapped back to this graph's vertex names and returned without running
+ * ClauseGen or DPLL.  Otherwise the pipeline runs and it's answer is stored.  Only runs
+ * that finished are stored: a search that ran out of time has no path, but that does not
+ * mean the graph has none, so storing it would answer "No Solution!" for that graph from
+ * then on.  The caller is told that the run ran out of time instead.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class CachedPipeline{
+    private Pipeline pipeline; //pipeline run on a cache miss
+    private ResultCache cache; //answers of graphs already solved
+    private long fingerprintNanos = 0; //total time spent fingerprinting graphs
+    private long fingerprints = 0; //number of graphs fingerprinted
+
+    /**
+     * Main method.  It solves each graph file given, printing each result the way ResultGen
+     * does, followed by the cache's hit rate and lookup times.
+     * @param args the cache directory, the cache size limit in megabytes, then graph files,
+     *             then any flags for the pipeline
+     */
+    public static void main(String[] args){
+        if(args.length < 3){
+            System.err.println("Error: usage is CachedPipeline [cacheDirectory] [maxMegabytes] [inputFileName.txt ...] [flags]\nTerminating...\n");
+            System.exit(1);
+        }
+        ArrayList<String> files = new ArrayList<String>();
+        ArrayList<String> flags = new ArrayList<String>();
+        for(int i = 2; i < args.length; i ++){
+            if(args[i].startsWith("--")){
+                flags.add(args[i]);
+            }
+            else{
+                files.add(args[i]);
+            }
+        }
+        try{
+            ResultCache cache = new ResultCache(new File(args[0]), (long)(Double.parseDouble(args[1]) * 1024 * 1024));
+            CachedPipeline cached = new CachedPipeline(Pipeline.fromFlags(flags.toArray(new String[0])), cache);
+            for(int i = 0; i < files.size(); i ++){
+                System.out.println(files.get(i) + ": " + cached.run(Pipeline.readFile(new File(files.get(i)))));
+            }
+            System.out.println(cached.report());
+        }
+        catch(IOException e){
+            System.err.println("Error: " + e.getMessage() + "\nTerminating...\n");
+            System.exit(1);
+        }
+        catch(IllegalArgumentException e){ //flags that can not be used together
+            System.err.println("Error: " + e.getMessage() + ".\nTerminating...");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * constructor that sets the pipeline and the cache in front of it.
+     * @param pipeline the pipeline to run on a cache miss
+     * @param cache the cache of answers
+     */
+    public CachedPipeline(Pipeline pipeline, ResultCache cache){
+        this.pipeline = pipeline;
+        this.cache = cache;
+    }
+
+    /**
+     * finds a Hamiltonian path through a graph, using the cache if it can.
+     * @param edgeList the graph, in the same format as the input file to ClauseGen
+     * @return the path (or null if there is none, or the search ran out of time) and whether the
+     *         search ran out of time.  An answer from the cache has the engine "cache", and the
+     *         time spent looking it up as it's solve time.
+     * @throws IOException if the pipeline could not read it's own DPLL input
+     */
+    public PipelineResult run(String edgeList) throws IOException{
+        long start = System.nanoTime();
+        GraphFingerprint fingerprint = new GraphFingerprint(ClauseGen.readGraph(new Scanner(edgeList)));
+        synchronized(this){
+            fingerprintNanos += System.nanoTime() - start;
+            fingerprints ++;
+        }
+
+        long fingerprinted = System.nanoTime();
+        int[] cached = cache.lookup(fingerprint);
+        if(cached != null){
+            ArrayList<Entry> path = null;
+            if(cached.length > 0){
+                path = new ArrayList<Entry>(cached.length);
+                for(int i = 0; i < cached.length; i ++){
+                    path.add(new Entry(fingerprint.getName(cached[i]), i + 1));
+                }
+            }
+            return new PipelineResult(path, false, "cache", fingerprinted - start, 0, System.nanoTime() - fingerprinted, 0, 0);
+        }
+
+        PipelineResult result = pipeline.run(edgeList);
+        if(!result.isFinished()){ //no path was found in time, which says nothing about the graph
+            return result;
+        }
+        ArrayList<Entry> path = result.getPath();
+        int[] numbers = null;
+        if(path != null){
+            numbers = new int[path.size()];
+            for(int i = 0; i < numbers.length; i ++){
+                numbers[i] = fingerprint.getNumber(path.get(i).toString());
+            }
+        }
+        cache.store(fingerprint, numbers);
+        return result;
+    }
+
+    /**
+     * getter for the cache in front of the pipeline
+     * @return the result cache
+     */
+    public ResultCache getCache(){
+        return cache;
+    }
+
+    /**
+     * describes the cache's use so far, including the time spent fingerprinting graphs.
+     * @return the cache report, followed by the mean fingerprint time
+     */
+    public synchronized String report(){
+        return cache.report() + String.format(", %.1f us mean fingerprint", fingerprints == 0 ? 0 : fingerprintNanos / 1000.0 / fingerprints);
+    }
+}
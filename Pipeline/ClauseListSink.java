@@ -0,0 +1,61 @@
+import java.util.*;
+/**
+ * This class is a ClauseSink that builds DPLL clauses directly, so that the clauses made by
+ * part 1 can be handed to part 2 without being written out and read back in.  Each integer
+ * literal is matched to the symbol for it's atom, and the finished clauses are added to
+ * whichever list is the current target.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class ClauseListSink implements ClauseSink{
+    private Symbol[] symbolsByAtom; //symbolsByAtom[atom] is the symbol for that atom
+    private ArrayList<Clause> target; //list that new clauses are added to
+
+    /**
+     * constructor that sets the symbols and the first list to add clauses to.
+     * @param symbolsByAtom the symbol for each atom, indexed by atom
+     * @param target the list that clauses are added to
+     */
+    public ClauseListSink(Symbol[] symbolsByAtom, ArrayList<Clause> target){
+        this.symbolsByAtom = symbolsByAtom;
+        this.target = target;
+    }
+
+    /**
+     * changes the list that clauses are added to.
+     * @param target the list that the following clauses are added to
+     */
+    public void setTarget(ArrayList<Clause> target){
+        this.target = target;
+    }
+
+    /**
+     * builds a clause of two literals.
+     * @param first the first literal of the clause
+     * @param second the second literal of the clause
+     */
+    public void addBinary(int first, int second){
+        target.add(new Clause(new Literal[]{literal(first), literal(second)}));
+    }
+
+    /**
+     * builds a clause of any length.
+     * @param literals the literals of the clause
+     */
+    public void addClause(int[] literals){
+        Literal[] built = new Literal[literals.length];
+        for(int i = 0; i < literals.length; i ++){
+            built[i] = literal(literals[i]);
+        }
+        target.add(new Clause(built));
+    }
+
+    /**
+     * turns an integer literal into a DPLL literal.
+     * @param literal the atom, negated if the literal is flipped
+     * @return the literal for that atom's symbol
+     */
+    private Literal literal(int literal){
+        return new Literal(symbolsByAtom[Math.abs(literal)], literal < 0);
+    }
+}
@@ -0,0 +1,213 @@
+import java.util.*;
+import java.security.*;
+/**
+ * This class gives a graph a canonical form that does not depend on the names of it's
+ * vertices or the order it's edges were listed in, along with a hash of that form for use as
+ * a cache key.  Starting from the sorted vertex list that ClauseGen builds, the vertices are
+ * repeatedly split into classes by their in and out degrees and the classes of their
+ * neighbours, until no class splits any further.  If a class still holds more than one
+ * vertex, one of them is given a class of it's own and the splitting starts again, until
+ * every vertex is alone in it's class.  The order of the classes is then the canonical
+ * numbering of the vertices.
+ *
+ * Two graphs with the same canonical form are always the same graph up to renaming, so a
+ * cached answer for one is correct for the other.  Renamed copies of a very symmetric graph
+ * can end up with different forms, which only costs a cache miss.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class GraphFingerprint{
+    private int numVertices; //number of vertices in the graph
+    private String[] names; //vertex names, indexed by canonical number
+    private HashMap<String, Integer> numbers = new HashMap<String, Integer>(); //canonical number of each vertex name
+    private String canonicalForm; //number of vertices, then one "a b" line per edge in canonical numbers
+    private String key; //SHA-256 of the canonical form, in hex
+
+    /**
+     * constructor that computes the canonical form of a graph.
+     * @param graph the graph, as built by ClauseGen.readGraph()
+     */
+    public GraphFingerprint(GraphTranslator graph){
+        ArrayList<Vertices> vertices = graph.getVertices();
+        numVertices = vertices.size();
+        HashMap<String, Integer> indexByName = new HashMap<String, Integer>();
+        for(int i = 0; i < numVertices; i ++){
+            indexByName.put(vertices.get(i).getName(), i);
+        }
+        boolean[][] adjacent = new boolean[numVertices][numVertices];
+        Vertices[] connections;
+        for(int i = 0; i < numVertices; i ++){
+            connections = vertices.get(i).getConnections();
+            for(int j = 0; j < connections.length; j ++){
+                adjacent[i][indexByName.get(connections[j].getName())] = true;
+            }
+        }
+
+        int[] colors = new int[numVertices]; //every vertex starts in the same class
+        int classes = refine(adjacent, colors);
+        int individual;
+        while(classes < numVertices){ //give one vertex of the first shared class a class of it's own
+            individual = firstSharedClassMember(colors);
+            for(int i = 0; i < numVertices; i ++){
+                colors[i] = colors[i] * 2;
+            }
+            colors[individual] ++;
+            classes = refine(adjacent, colors);
+        }
+
+        names = new String[numVertices];
+        for(int i = 0; i < numVertices; i ++){
+            names[colors[i]] = vertices.get(i).getName();
+            numbers.put(vertices.get(i).getName(), colors[i]);
+        }
+        StringBuilder build = new StringBuilder(numVertices * numVertices);
+        build.append(numVertices).append('\n');
+        int[] original = new int[numVertices];
+        for(int i = 0; i < numVertices; i ++){
+            original[colors[i]] = i;
+        }
+        for(int a = 0; a < numVertices; a ++){
+            for(int b = 0; b < numVertices; b ++){
+                if(adjacent[original[a]][original[b]]){
+                    build.append(a).append(' ').append(b).append('\n');
+                }
+            }
+        }
+        canonicalForm = build.toString();
+        key = sha256(canonicalForm);
+    }
+
+    /**
+     * splits classes of vertices until no class splits any further.  A vertex's new class is
+     * decided by it's old class and the sorted classes of the vertices it has edges to and from.
+     * Classes are numbered in the sorted order of those descriptions, which does not depend on names.
+     * @param adjacent adjacency matrix of the graph
+     * @param colors class of each vertex; replaced with the refined classes, numbered from 0
+     * @return the number of classes
+     */
+    private int refine(boolean[][] adjacent, int[] colors){
+        int classes = -1;
+        String[] signatures = new String[numVertices];
+        int[] out = new int[numVertices];
+        int[] in = new int[numVertices];
+        int numOut;
+        int numIn;
+        StringBuilder build;
+        while(true){
+            for(int v = 0; v < numVertices; v ++){
+                numOut = 0;
+                numIn = 0;
+                for(int u = 0; u < numVertices; u ++){
+                    if(adjacent[v][u]){
+                        out[numOut ++] = colors[u];
+                    }
+                    if(adjacent[u][v]){
+                        in[numIn ++] = colors[u];
+                    }
+                }
+                Arrays.sort(out, 0, numOut);
+                Arrays.sort(in, 0, numIn);
+                build = new StringBuilder();
+                build.append(String.format("%08d", colors[v])).append('>');
+                for(int i = 0; i < numOut; i ++){
+                    build.append(out[i]).append(',');
+                }
+                build.append('<');
+                for(int i = 0; i < numIn; i ++){
+                    build.append(in[i]).append(',');
+                }
+                signatures[v] = build.toString();
+            }
+            TreeMap<String, Integer> numbering = new TreeMap<String, Integer>();
+            for(int v = 0; v < numVertices; v ++){
+                numbering.put(signatures[v], 0);
+            }
+            int next = 0;
+            for(Map.Entry<String, Integer> entry : numbering.entrySet()){
+                entry.setValue(next ++);
+            }
+            for(int v = 0; v < numVertices; v ++){
+                colors[v] = numbering.get(signatures[v]);
+            }
+            if(numbering.size() == classes){
+                return classes;
+            }
+            classes = numbering.size();
+        }
+    }
+
+    /**
+     * finds the first vertex, in sorted name order, of the lowest numbered class that holds more than one vertex.
+     * @param colors class of each vertex
+     * @return index of that vertex
+     */
+    private int firstSharedClassMember(int[] colors){
+        int[] sizes = new int[numVertices];
+        for(int v = 0; v < numVertices; v ++){
+            sizes[colors[v]] ++;
+        }
+        int shared = 0;
+        while(sizes[shared] < 2){
+            shared ++;
+        }
+        for(int v = 0; v < numVertices; v ++){
+            if(colors[v] == shared){
+                return v;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * hashes a String with SHA-256.
+     * @param text the text to hash
+     * @return the hash as lower case hex
+     */
+    private static String sha256(String text){
+        try{
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes("UTF-8"));
+            StringBuilder build = new StringBuilder(digest.length * 2);
+            for(int i = 0; i < digest.length; i ++){
+                build.append(String.format("%02x", digest[i] & 0xff));
+            }
+            return build.toString();
+        }
+        catch(Exception e){
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * getter for the cache key of the graph
+     * @return the SHA-256 of the canonical form, in hex
+     */
+    public String getKey(){
+        return key;
+    }
+
+    /**
+     * getter for the canonical form of the graph
+     * @return the number of vertices, then one "a b" line per edge in canonical numbers
+     */
+    public String getCanonicalForm(){
+        return canonicalForm;
+    }
+
+    /**
+     * returns the name of the vertex with a canonical number
+     * @param number canonical number of the vertex
+     * @return the vertex's name in this graph
+     */
+    public String getName(int number){
+        return names[number];
+    }
+
+    /**
+     * returns the canonical number of a vertex
+     * @param name the vertex's name in this graph
+     * @return it's canonical number
+     */
+    public int getNumber(String name){
+        return numbers.get(name);
+    }
+}
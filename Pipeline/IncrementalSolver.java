@@ -0,0 +1,309 @@
+import java.util.*;
+import java.io.*;
+/**
+ * This class keeps a graph's clauses and last answer in memory so that, after a small edit to
+ * the graph, a new answer can be found without starting from nothing.  The vertices may not
+ * change, only the edges between them.  An edit is a list of lines:
+ *
+ *   + start end    adds the edge from start to end
+ *   - start end    removes the edge from start to end
+ *
+ * Only the clauses of noIllegalPaths() depend on the edges, and those are kept in a separate
+ * list for each missing edge.  Adding an edge throws away that edge's list, and removing an
+ * edge builds a new one with GraphTranslator.noIllegalPaths(start, end, sink).  Every other
+ * clause is built once, when the solver is created.
+ *
+ * After an edit the last answer is checked before anything is searched:
+ *   - if the last path uses none of the removed edges, it is still a Hamiltonian path
+ *   - if there was no path and no edge was added, there is still no path
+ * Otherwise DPLL is run again with a warm start: the atoms of the last path are branched on
+ * first, and every symbol tries the value it had in the last solution first (see
+ * Symbol.setPhase()).  A small edit usually breaks the old path in one place, so most of it
+ * is kept and the search only has to repair the broken part.
+ *
+ * DPLL keeps it's state in static variables, so the searches hold the same lock as Pipeline.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class IncrementalSolver{
+    private GraphTranslator graph; //vertex names and atom numbers of the graph
+    private int numVertices; //number of vertices in the graph
+    private HashMap<String, Integer> indexByName = new HashMap<String, Integer>(); //vertex index of each name
+    private boolean[][] adjacent; //adjacent[a][b] is true if there is an edge from vertex a to vertex b
+    private Symbol[] symbolsByAtom; //symbol for each atom
+    private ArrayList<Symbol> symbols = new ArrayList<Symbol>(); //every symbol, in the order DPLL branches on them
+    private ArrayList<Clause> clauses = new ArrayList<Clause>(); //every clause given to DPLL
+    private HashMap<Integer, ArrayList<Clause>> missingEdgeClauses = new HashMap<Integer, ArrayList<Clause>>(); //clauses for each missing edge, by start * numVertices + end
+    private ClauseListSink sink; //builds clauses for the symbols above
+    private int[] path; //vertex index at each position of the last answer, or null if there was none
+    private long timeLimitMillis = 0; //time budget for each search, or 0 for none
+    private boolean timedOut = false; //true if the last search ran out of time
+    private boolean searched = false; //true if the last answer needed a search
+    private long solveNanos = 0; //time spent on the last answer
+
+    /**
+     * Main method.  It solves the graph in the first file, then applies each edit file in
+     * turn, printing each answer the way ResultGen does along with how it was found.
+     * @param args the graph file, then any number of edit files, then an optional --timeout=seconds
+     */
+    public static void main(String[] args){
+        if(args.length < 1){
+            System.err.println("Error: usage is IncrementalSolver [inputFileName.txt] [editFileName.txt ...] [--timeout=seconds]\nTerminating...\n");
+            System.exit(1);
+        }
+        ArrayList<String> edits = new ArrayList<String>();
+        long timeLimit = 0;
+        for(int i = 1; i < args.length; i ++){
+            if(args[i].startsWith("--timeout=")){
+                timeLimit = (long)(Double.parseDouble(args[i].substring(10)) * 1000);
+            }
+            else{
+                edits.add(args[i]);
+            }
+        }
+        String current = args[0];
+        try{
+            IncrementalSolver solver = new IncrementalSolver(Pipeline.readFile(new File(current)), timeLimit);
+            System.out.println(current + ": " + solver.describe());
+            for(int i = 0; i < edits.size(); i ++){
+                current = edits.get(i);
+                solver.update(Pipeline.readFile(new File(current)));
+                System.out.println(current + ": " + solver.describe());
+            }
+        }
+        catch(IOException e){
+            System.err.println("Error: The file \"" + current + "\" could not be read.\nTerminating...\n");
+            System.exit(1);
+        }
+        catch(IllegalArgumentException e){
+            System.err.println("Error: " + e.getMessage() + " in \"" + current + "\".\nTerminating...\n");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * constructor that builds every clause for a graph and finds it's first answer.
+     * @param edgeList the graph, in the same format as the input file to ClauseGen
+     * @param timeLimitMillis milliseconds each search may take, or 0 for no limit
+     */
+    public IncrementalSolver(String edgeList, long timeLimitMillis){
+        this.timeLimitMillis = timeLimitMillis;
+        graph = ClauseGen.readGraph(new Scanner(edgeList));
+        numVertices = graph.numVertices;
+        adjacent = new boolean[numVertices][numVertices];
+        ArrayList<Vertices> vertices = graph.getVertices();
+        for(int index = 0; index < numVertices; index ++){
+            indexByName.put(vertices.get(index).getName(), index);
+        }
+        Vertices[] connections;
+        for(int index = 0; index < numVertices; index ++){
+            connections = vertices.get(index).getConnections();
+            for(int j = 0; j < connections.length; j ++){
+                adjacent[index][indexByName.get(connections[j].getName())] = true;
+            }
+        }
+
+        symbolsByAtom = new Symbol[numVertices * numVertices + 1];
+        for(int atom = 1; atom < symbolsByAtom.length; atom ++){
+            symbolsByAtom[atom] = new Symbol(atom);
+            symbols.add(symbolsByAtom[atom]);
+        }
+        sink = new ClauseListSink(symbolsByAtom, clauses);
+        graph.writeClauses(sink, false); //the clauses for missing edges are kept in their own lists
+        for(int start = 0; start < numVertices; start ++){
+            for(int end = 0; end < numVertices; end ++){
+                if(start != end && !adjacent[start][end]){
+                    addMissingEdge(start, end);
+                }
+            }
+        }
+        search(null);
+    }
+
+    /**
+     * applies an edit to the graph and finds the new answer.
+     * @param edit lines of the form "+ start end" or "- start end"
+     * @return the vertices of a Hamiltonian path in order, or null if there is none (or the
+     *         search ran out of time, see timedOut())
+     * @throws IllegalArgumentException if a line is not a valid edit
+     */
+    public ArrayList<Entry> update(String edit){
+        long start = System.nanoTime();
+        boolean added = false;
+        boolean pathBroken = false;
+        int[] old = path;
+        int[] position = new int[numVertices]; //position of each vertex in the last path
+        if(old != null){
+            for(int time = 0; time < numVertices; time ++){
+                position[old[time]] = time;
+            }
+        }
+
+        String[] lines = edit.split("\n");
+        String[] parts;
+        int from;
+        int to;
+        for(int i = 0; i < lines.length; i ++){
+            if(lines[i].trim().equals("")){
+                continue;
+            }
+            parts = lines[i].trim().split(" +");
+            if(parts.length != 3 || !(parts[0].equals("+") || parts[0].equals("-"))){
+                throw new IllegalArgumentException("Invalid edit \"" + lines[i] + "\"");
+            }
+            from = vertexIndex(parts[1]);
+            to = vertexIndex(parts[2]);
+            if(from == to || adjacent[from][to] == parts[0].equals("+")){ //edges to ourselves are never encoded, and the edge may already be as asked
+                continue;
+            }
+            if(parts[0].equals("+")){
+                adjacent[from][to] = true;
+                clauses.removeAll(new HashSet<Clause>(missingEdgeClauses.remove(from * numVertices + to))); //clauses are compared by identity
+                added = true;
+            }
+            else{
+                adjacent[from][to] = false;
+                addMissingEdge(from, to);
+                if(old != null && position[from] + 1 == position[to]){ //the last path used this edge
+                    pathBroken = true;
+                }
+            }
+        }
+
+        if(!timedOut && ((old != null && !pathBroken) || (old == null && !added))){ //the last answer still holds
+            searched = false;
+        }
+        else{
+            search(old);
+        }
+        solveNanos = System.nanoTime() - start;
+        return getPath();
+    }
+
+    /**
+     * builds the clauses for a missing edge and gives them to DPLL.
+     * @param start index of the start vertex of the edge
+     * @param end index of the end vertex of the edge
+     */
+    private void addMissingEdge(int start, int end){
+        ArrayList<Clause> edgeClauses = new ArrayList<Clause>(numVertices - 1);
+        sink.setTarget(edgeClauses);
+        graph.noIllegalPaths(start, end, sink);
+        missingEdgeClauses.put(start * numVertices + end, edgeClauses);
+        clauses.addAll(edgeClauses);
+    }
+
+    /**
+     * runs DPLL on the current clauses, warm started from a previous path if there is one.
+     * @param hint vertex index at each position of the previous path, or null for a cold start
+     */
+    private void search(int[] hint){
+        long start = System.nanoTime();
+        boolean success;
+        synchronized(Pipeline.class){
+            for(int atom = 1; atom < symbolsByAtom.length; atom ++){
+                symbolsByAtom[atom].setValue(null);
+                symbolsByAtom[atom].setPhase(hint == null); //with a hint, only the hinted atoms try true first
+            }
+            if(hint != null){ //branch on the atoms of the previous path first, in path order
+                ArrayList<Symbol> first = new ArrayList<Symbol>(numVertices);
+                for(int time = 1; time <= numVertices; time ++){
+                    first.add(symbolsByAtom[graph.getAtom(hint[time - 1], time)]);
+                    first.get(time - 1).setPhase(true);
+                }
+                symbols.removeAll(first);
+                symbols.addAll(0, first);
+            }
+            for(int i = 0; i < clauses.size(); i ++){ //clear what the clauses remember of the last search
+                clauses.get(i).updateClause();
+            }
+
+            DPLL.reset();
+            DPLL.resetOptions();
+            DPLL.verbose = false;
+            DPLL.timeLimitMillis = timeLimitMillis;
+            DPLL.symbols = symbols;
+            DPLL.clauses = clauses;
+            DPLL.model = new Model(clauses);
+            success = DPLL.solve();
+            timedOut = DPLL.timedOut;
+        }
+
+        path = null;
+        if(success){
+            path = new int[numVertices];
+            for(int vertex = 0; vertex < numVertices; vertex ++){
+                for(int time = 1; time <= numVertices; time ++){
+                    if(Boolean.TRUE.equals(symbolsByAtom[graph.getAtom(vertex, time)].getValue())){
+                        path[time - 1] = vertex;
+                    }
+                }
+            }
+        }
+        searched = true;
+        solveNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * finds the index of a vertex from it's name.
+     * @param name name of the vertex
+     * @return the vertex's index
+     * @throws IllegalArgumentException if the graph has no vertex with that name
+     */
+    private int vertexIndex(String name){
+        Integer index = indexByName.get(name);
+        if(index == null){
+            throw new IllegalArgumentException("Unknown vertex \"" + name + "\"");
+        }
+        return index;
+    }
+
+    /**
+     * getter for the current answer
+     * @return the vertices of a Hamiltonian path in order, or null if there is none
+     */
+    public ArrayList<Entry> getPath(){
+        if(path == null){
+            return null;
+        }
+        ArrayList<Entry> entries = new ArrayList<Entry>(numVertices);
+        ArrayList<Vertices> vertices = graph.getVertices();
+        for(int time = 0; time < numVertices; time ++){
+            entries.add(new Entry(vertices.get(path[time]).getName(), time + 1));
+        }
+        return entries;
+    }
+
+    /**
+     * returns true if the last search ran out of time
+     * @return true if the current answer is not known
+     */
+    public boolean timedOut(){
+        return timedOut;
+    }
+
+    /**
+     * returns true if the current answer needed a search, rather than being kept from before
+     * @return true if DPLL was run for the current answer
+     */
+    public boolean searched(){
+        return searched;
+    }
+
+    /**
+     * getter for the time spent finding the current answer
+     * @return nanoseconds spent on the last edit (or on the first answer)
+     */
+    public long getSolveNanos(){
+        return solveNanos;
+    }
+
+    /**
+     * describes the current answer and how it was found.
+     * @return the answer the way ResultGen prints it, followed by whether it was searched for and how long it took
+     */
+    public String describe(){
+        return (timedOut ? "Out of time!" : Pipeline.format(getPath())) + " (" + (searched ? "searched" : "kept") + ", "
+               + String.format("%.3f", solveNanos / 1e6) + " ms)";
+    }
+}
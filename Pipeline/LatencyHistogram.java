@@ -0,0 +1,80 @@
+import java.util.*;
+/**
+ * This class records how long requests take, so that percentiles such as the median (p50)
+ * and the 99th percentile (p99) can be reported without keeping every time.  Times are
+ * counted in buckets that grow by a quarter power of two, so each bucket is at most about
+ * 19% wider than the one before it, and a percentile is reported as the top of the bucket
+ * it falls in.  The buckets cover one microsecond up to a little over an hour; longer
+ * times are counted in the last bucket.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class LatencyHistogram{
+    private static final int STEPS = 4; //buckets per power of two
+    private long[] counts = new long[32 * STEPS]; //number of times recorded in each bucket
+    private long total = 0; //number of times recorded
+    private long sumNanos = 0; //sum of every time recorded
+    private long maxNanos = 0; //longest time recorded
+
+    /**
+     * records one time.
+     * @param nanos the time in nanoseconds
+     */
+    public synchronized void record(long nanos){
+        counts[bucket(nanos)] ++;
+        total ++;
+        sumNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * finds the bucket a time belongs in.
+     * @param nanos the time in nanoseconds
+     * @return the index of the bucket
+     */
+    private static int bucket(long nanos){
+        double micros = nanos / 1000.0;
+        if(micros <= 1){
+            return 0;
+        }
+        int index = (int)Math.ceil(Math.log(micros) / Math.log(2) * STEPS);
+        return Math.min(index, 32 * STEPS - 1);
+    }
+
+    /**
+     * returns the time that the given fraction of the recorded times are no longer than.
+     * @param fraction between 0 and 1, such as 0.99 for p99
+     * @return the top of the bucket holding that percentile in milliseconds, or 0 if nothing was recorded
+     */
+    public synchronized double percentile(double fraction){
+        if(total == 0){
+            return 0;
+        }
+        long rank = (long)Math.ceil(fraction * total);
+        long seen = 0;
+        for(int i = 0; i < counts.length; i ++){
+            seen += counts[i];
+            if(seen >= Math.max(rank, 1)){
+                return Math.min(Math.pow(2, (double)i / STEPS) / 1000.0, maxNanos / 1e6); //never report more than the longest time
+            }
+        }
+        return maxNanos / 1e6;
+    }
+
+    /**
+     * getter for the number of times recorded
+     * @return the number of times recorded
+     */
+    public synchronized long getCount(){
+        return total;
+    }
+
+    /**
+     * describes the recorded times.
+     * @return the count, mean, p50, p99 and max, in milliseconds
+     */
+    public synchronized String report(){
+        return String.format(Locale.ROOT, "%d timed, mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms", total,
+                             total == 0 ? 0 : sumNanos / 1e6 / total, percentile(0.5), percentile(0.99), maxNanos / 1e6);
+    }
+}
@@ -0,0 +1,356 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * Looks for a Hamiltonian path by extending a path one vertex at a time straight over the
+ * graph, without encoding it as clauses.  Each vertex's successors and predecessors are kept as
+ * bitsets in long arrays, and so is the set of vertices the path has not visited yet, so most
+ * of the work at each step is a few word sized ANDs.
+ *
+ * Before the path is extended, every unvisited vertex is checked:
+ *   - it must have a predecessor that is unvisited or is the end of the path (dead ends),
+ *   - if the end of the path is it's only possible predecessor, it has to come next, and two
+ *     such vertices cannot both come next (forced moves),
+ *   - at most one of them may have no unvisited successor, since only the last vertex can,
+ *   - and all of them must still be reachable from the end of the path (connectivity).
+ * When nothing is forced, the successors are tried in order of how few unvisited successors
+ * they have themselves (Warnsdorff's rule).
+ *
+ * The paths starting at each vertex are searched as separate tasks of a ForkJoinPool, and the
+ * first task to find a path stops the others.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class PathSearch{
+    private int numVertices; //number of vertices in the graph
+    private int words; //longs in each bitset
+    private String[] names; //vertex names by index
+    private long[][] successors; //successors[v] has bit u set if there is an edge from v to u
+    private long[][] predecessors; //predecessors[v] has bit u set if there is an edge from u to v
+    private long deadline = 0; //System.nanoTime() at which the search gives up, or 0 for none
+    private volatile boolean stopped = false; //set once a path is found or the time is used
+    private volatile boolean timedOut = false; //set when the search ran out of time
+    private AtomicLong nodes = new AtomicLong(); //number of paths extended, over every task
+
+    /**
+     * constructor that builds the bitsets from each vertex's connections.
+     * @param vertices the vertices of the graph, as read by ClauseGen
+     */
+    public PathSearch(ArrayList<Vertices> vertices){
+        numVertices = vertices.size();
+        words = (numVertices + 63) / 64;
+        names = new String[numVertices];
+        successors = new long[numVertices][words];
+        predecessors = new long[numVertices][words];
+        HashMap<Vertices, Integer> indexes = new HashMap<Vertices, Integer>();
+        for(int i = 0; i < numVertices; i ++){
+            indexes.put(vertices.get(i), i);
+            names[i] = vertices.get(i).getName();
+        }
+        Vertices[] connections;
+        int to;
+        for(int from = 0; from < numVertices; from ++){
+            connections = vertices.get(from).getConnections();
+            for(int j = 0; j < connections.length; j ++){
+                to = indexes.get(connections[j]);
+                if(to != from){ //a loop can never be part of a path
+                    set(successors[from], to);
+                    set(predecessors[to], from);
+                }
+            }
+        }
+    }
+
+    /**
+     * looks for a Hamiltonian path, using every processor.
+     * @param timeLimitMillis time budget for the search, or 0 for none
+     * @return the vertices of a path in order, or null if there is none (or the time ran out, see timedOut())
+     */
+    public int[] search(long timeLimitMillis){
+        if(numVertices == 0){
+            return null;
+        }
+        deadline = timeLimitMillis > 0 ? System.nanoTime() + timeLimitMillis * 1000000L : 0;
+        stopped = false;
+        timedOut = false;
+        Integer[] starts = new Integer[numVertices];
+        for(int i = 0; i < numVertices; i ++){
+            starts[i] = i;
+        }
+        Arrays.sort(starts, new Comparator<Integer>(){ //a vertex with few ways in is most likely to be the start
+            public int compare(Integer a, Integer b){
+                return count(predecessors[a]) - count(predecessors[b]);
+            }
+        });
+
+        ForkJoinPool pool = new ForkJoinPool();
+        int[] found = null;
+        try{
+            ArrayList<ForkJoinTask<int[]>> branches = new ArrayList<ForkJoinTask<int[]>>();
+            for(int i = 0; i < numVertices; i ++){
+                final int start = starts[i];
+                branches.add(pool.submit(new RecursiveTask<int[]>(){
+                    protected int[] compute(){
+                        return searchFrom(start);
+                    }
+                }));
+            }
+            for(int i = 0; i < branches.size(); i ++){
+                int[] path = branches.get(i).join();
+                if(found == null){
+                    found = path;
+                }
+            }
+        }
+        finally{ //even when a task failed, stop the other tasks and let the pool's threads end
+            stopped = true;
+            pool.shutdown();
+        }
+        if(found != null){
+            timedOut = false;
+        }
+        return found;
+    }
+
+    /**
+     * searches every path that starts at one vertex.
+     * @param start index of the first vertex
+     * @return the vertices of a path in order, or null if none starts there
+     */
+    private int[] searchFrom(int start){
+        int[] path = new int[numVertices];
+        path[0] = start;
+        long[] unvisited = new long[words];
+        for(int v = 0; v < numVertices; v ++){
+            if(v != start){
+                set(unvisited, v);
+            }
+        }
+        long[] extended = new long[1]; //paths extended by this task, shared by every level of extend()
+        boolean success = extend(path, 1, unvisited, numVertices - 1, extended);
+        nodes.addAndGet(extended[0]);
+        if(success){
+            stopped = true;
+            return path;
+        }
+        return null;
+    }
+
+    /**
+     * checks the unvisited vertices and then tries each way of adding one of them to the path.
+     * @param path the path so far, filled in up to length
+     * @param length number of vertices on the path
+     * @param unvisited bitset of the vertices not on the path; put back as it was before returning
+     * @param remaining number of vertices in unvisited
+     * @param extended count of the paths extended by this task
+     * @return true if the path was completed, in which case path holds it
+     */
+    private boolean extend(int[] path, int length, long[] unvisited, int remaining, long[] extended){
+        if(remaining == 0){
+            return true;
+        }
+        if(stopped){
+            return false;
+        }
+        extended[0] ++;
+        if((extended[0] & 4095) == 0 && deadline != 0 && System.nanoTime() > deadline){
+            timedOut = true;
+            stopped = true;
+            return false;
+        }
+
+        int last = path[length - 1];
+        int forced = -1; //unvisited vertex that only the end of the path leads to, or -1 if there is none
+        int ends = 0; //unvisited vertices with no unvisited successor
+        for(int w = 0; w < words; w ++){
+            for(long bits = unvisited[w]; bits != 0; bits &= bits - 1){
+                int v = 64 * w + Long.numberOfTrailingZeros(bits);
+                if(!intersects(predecessors[v], unvisited)){
+                    if(!get(predecessors[v], last) || forced >= 0){ //nothing leads to it, or two vertices must both come next
+                        return false;
+                    }
+                    forced = v;
+                }
+                if(!intersects(successors[v], unvisited)){
+                    ends ++;
+                    if(ends > 1){ //only one vertex can be last
+                        return false;
+                    }
+                }
+            }
+        }
+        if(remaining > 1 && reachable(last, unvisited) < remaining){
+            return false;
+        }
+
+        int[] candidates;
+        if(forced >= 0){
+            candidates = new int[]{forced};
+        }
+        else{
+            candidates = new int[remaining];
+            int[] onward = new int[numVertices]; //unvisited successors of each candidate
+            int numCandidates = 0;
+            for(int w = 0; w < words; w ++){
+                for(long bits = successors[last][w] & unvisited[w]; bits != 0; bits &= bits - 1){
+                    int v = 64 * w + Long.numberOfTrailingZeros(bits);
+                    onward[v] = countAnd(successors[v], unvisited);
+                    int j = numCandidates ++; //insert in order of the fewest onward successors
+                    while(j > 0 && onward[candidates[j - 1]] > onward[v]){
+                        candidates[j] = candidates[j - 1];
+                        j --;
+                    }
+                    candidates[j] = v;
+                }
+            }
+            candidates = Arrays.copyOf(candidates, numCandidates);
+        }
+        for(int i = 0; i < candidates.length; i ++){
+            clear(unvisited, candidates[i]);
+            path[length] = candidates[i];
+            if(extend(path, length + 1, unvisited, remaining - 1, extended)){
+                set(unvisited, candidates[i]);
+                return true;
+            }
+            set(unvisited, candidates[i]);
+            if(stopped){
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * counts the vertices of a set that can be reached from a vertex through that set.
+     * @param from the vertex to start from, which does not need to be in the set
+     * @param within the bitset of vertices that may be passed through
+     * @return the number of vertices of within that can be reached
+     */
+    private int reachable(int from, long[] within){
+        long[] reached = new long[words];
+        long[] frontier = new long[words];
+        long[] next = new long[words];
+        for(int w = 0; w < words; w ++){
+            frontier[w] = successors[from][w] & within[w];
+            reached[w] = frontier[w];
+        }
+        long[] swap;
+        boolean grew = true;
+        while(grew){
+            grew = false;
+            Arrays.fill(next, 0);
+            for(int w = 0; w < words; w ++){
+                for(long bits = frontier[w]; bits != 0; bits &= bits - 1){
+                    long[] out = successors[64 * w + Long.numberOfTrailingZeros(bits)];
+                    for(int x = 0; x < words; x ++){
+                        next[x] |= out[x];
+                    }
+                }
+            }
+            for(int w = 0; w < words; w ++){
+                next[w] &= within[w] & ~reached[w];
+                reached[w] |= next[w];
+                grew |= next[w] != 0;
+            }
+            swap = frontier;
+            frontier = next;
+            next = swap;
+        }
+        return count(reached);
+    }
+
+    /**
+     * getter for the name of a vertex
+     * @param vertex index of the vertex
+     * @return the name given to the vertex in the graph
+     */
+    public String getName(int vertex){
+        return names[vertex];
+    }
+
+    /**
+     * tells whether the last search gave up because of it's time budget
+     * @return true if the search ran out of time
+     */
+    public boolean timedOut(){
+        return timedOut;
+    }
+
+    /**
+     * getter for the work done by the last search
+     * @return the number of paths that were extended, over every task
+     */
+    public long getNodes(){
+        return nodes.get();
+    }
+
+    /**
+     * turns on a bit of a bitset
+     * @param bits the bitset
+     * @param i the bit
+     */
+    private static void set(long[] bits, int i){
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    /**
+     * turns off a bit of a bitset
+     * @param bits the bitset
+     * @param i the bit
+     */
+    private static void clear(long[] bits, int i){
+        bits[i >>> 6] &= ~(1L << i);
+    }
+
+    /**
+     * checks a bit of a bitset
+     * @param bits the bitset
+     * @param i the bit
+     * @return true if the bit is on
+     */
+    private static boolean get(long[] bits, int i){
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * checks whether two bitsets of the same length share a bit
+     * @param a the first bitset
+     * @param b the second bitset
+     * @return true if some bit is on in both
+     */
+    private static boolean intersects(long[] a, long[] b){
+        for(int w = 0; w < a.length; w ++){
+            if((a[w] & b[w]) != 0){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * counts the bits that are on in a bitset
+     * @param bits the bitset
+     * @return the number of bits that are on
+     */
+    private static int count(long[] bits){
+        int total = 0;
+        for(int w = 0; w < bits.length; w ++){
+            total += Long.bitCount(bits[w]);
+        }
+        return total;
+    }
+
+    /**
+     * counts the bits that are on in both of two bitsets of the same length
+     * @param a the first bitset
+     * @param b the second bitset
+     * @return the number of bits on in both
+     */
+    private static int countAnd(long[] a, long[] b){
+        int total = 0;
+        for(int w = 0; w < a.length; w ++){
+            total += Long.bitCount(a[w] & b[w]);
+        }
+        return total;
+    }
+}
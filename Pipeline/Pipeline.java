@@ -0,0 +1,378 @@
+import java.util.*;
+import java.io.*;
+/**
+ * This class runs all three parts of the Hamiltonian path problem inside one program,
+ * passing the DPLL input and results between them in memory instead of through files.
+ * The formats are exactly the ones the separate programs write, so a run here gives the
+ * same answer as running ClauseGen, DPLL and ResultGen one after another.  The time spent
+ * in each part is given back with the path (see PipelineResult) so that callers can report it.
+ *
+ * Two other engines can take the place of the clauses and DPLL (--engine=name).  "dp" finds a
+ * path with PathCounter's table over every subset of the vertices, which is fastest while that
+ * table is small.  "search" extends paths straight over the graph with PathSearch, which does
+ * best on larger graphs.  "sat" (the default) is ClauseGen and DPLL, and "auto" picks an engine
+ * from the size of each graph (see chooseEngine()).  Whichever is used, the path is given back
+ * the way ResultGen reads it.
+ *
+ * ClauseGen and DPLL keep their state in static variables, so only one run may be in
+ * progress at a time.  run() holds a lock on this class while it works.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class Pipeline{
+    public static final int DP_VERTICES = 12; //auto uses the subset table up to this many vertices
+
+    private String[] clauseGenOptions; //flags given to ClauseGen, such as "--binary"
+    private String[] dpllOptions; //flags given to DPLL, such as "--cardinality"
+    private String engine; //"sat", "dp", "search" or "auto" (--engine=name)
+
+    /**
+     * Main method.  It runs every part on the graph file named by the first argument and prints
+     * the result the way ResultGen does, along with the time spent in each part.  Any flags after
+     * the file name are passed to whichever parts know them.
+     * @param args name of the graph file, followed by option flags
+     */
+    public static void main(String[] args){
+        if(args.length < 1){
+            System.err.println("Error: the program expects a file as input.\nTerminating...\n");
+            System.exit(1);
+        }
+        Pipeline pipeline = null;
+        try{
+            pipeline = fromFlags(Arrays.copyOfRange(args, 1, args.length));
+        }
+        catch(IllegalArgumentException e){
+            System.err.println("Error: " + e.getMessage() + ".\nTerminating...");
+            System.exit(1);
+        }
+        try{
+            PipelineResult result = pipeline.run(readFile(new File(args[0])));
+            System.out.println(result);
+            System.out.println("engine " + result.getEngine() + ", generate " + result.getGenerateNanos() / 1000000 + " ms, parse " + result.getParseNanos() / 1000000
+                               + " ms, solve " + result.getSolveNanos() / 1000000 + " ms, decode " + result.getDecodeNanos() / 1000000 + " ms");
+        }
+        catch(IOException e){
+            System.err.println("Error: The file \"" + args[0] + "\" could not be read.\nTerminating...\n");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * builds a pipeline from a list of command line flags, giving each flag to
+     * every part that knows it.
+     * @param flags option flags, such as "--binary" or "--cardinality"
+     * @return a pipeline that uses those options
+     * @throws IllegalArgumentException if --mapped is given with a DPLL option that can not be
+     *                                  used with it (see DPLL.unsupportedWithMapped())
+     */
+    public static Pipeline fromFlags(String[] flags){
+        ArrayList<String> clauseGenFlags = new ArrayList<String>();
+        ArrayList<String> dpllFlags = new ArrayList<String>();
+        String engine = "sat";
+        String unsupported;
+        synchronized(Pipeline.class){
+            ClauseGen.resetOptions(); //so options left over from an earlier run are not counted
+            DPLL.resetOptions();
+            for(int i = 0; i < flags.length; i ++){
+                boolean known = false;
+                if(flags[i].startsWith("--engine=") && isEngine(flags[i].substring(9))){
+                    engine = flags[i].substring(9);
+                    known = true;
+                }
+                if(ClauseGen.setOption(flags[i])){
+                    clauseGenFlags.add(flags[i]);
+                    known = true;
+                }
+                if(DPLL.setOption(flags[i])){
+                    dpllFlags.add(flags[i]);
+                    known = true;
+                }
+                if(!known){
+                    System.err.println("Warning: unknown option \"" + flags[i] + "\" was ignored.");
+                }
+            }
+            unsupported = ClauseGen.mapped ? DPLL.unsupportedWithMapped() : null;
+            ClauseGen.resetOptions();
+            DPLL.resetOptions();
+        }
+        if(unsupported != null){
+            throw new IllegalArgumentException(unsupported + " can not be used with --mapped, whose two literal clauses stay in the file");
+        }
+        return new Pipeline(clauseGenFlags.toArray(new String[0]), dpllFlags.toArray(new String[0]), engine);
+    }
+
+    /**
+     * checks whether a name is one of the engines that --engine=name accepts.
+     * @param name the name to check
+     * @return true if it is "sat", "dp", "search" or "auto"
+     */
+    public static boolean isEngine(String name){
+        return name.equals("sat") || name.equals("dp") || name.equals("search") || name.equals("auto");
+    }
+
+    /**
+     * picks the engine for a graph when --engine=auto is given.  The subset table takes the same
+     * time and memory whatever the edges are, doubling with each vertex, so it is used on the
+     * smallest graphs, where it answers in a few milliseconds even when the graph is dense enough
+     * or sparse enough to give the path search trouble.  The path search is used on every larger
+     * graph.
+     *
+     * The number of edges is not looked at, because it does not change which engine is fastest.
+     * On random graphs of 14 to 60 vertices with edge probability 0.05 to 0.9 (three seeds each,
+     * 20 second budget), the path search took at most 9 ms on every graph with p of 0.3 or more,
+     * and DPLL took 30 ms to 20 s on the same graphs, more as they got denser, since every edge
+     * a graph has is one less illegal path clause to cut the search down.  So sending dense graphs
+     * to DPLL would only slow them down.  The path search only had trouble near the density where
+     * paths start to appear, taking up to 2.5 s at 40 and 60 vertices and running out of time on
+     * two 60 vertex graphs.  DPLL ran out of time on every graph of 30 vertices or more at those
+     * densities, so it is no better there either, and it is only used when it is asked for.
+     * @param vertices the vertices of the graph
+     * @return "dp" or "search"
+     */
+    public static String chooseEngine(ArrayList<Vertices> vertices){
+        if(vertices.size() <= DP_VERTICES){ //the table does not depend on the edges
+            return "dp";
+        }
+        return "search"; //fastest at every density measured; see above
+    }
+
+    /**
+     * reads a whole text file into a String.
+     * @param f the file to read
+     * @return the contents of the file
+     * @throws IOException if the file could not be read
+     */
+    public static String readFile(File f) throws IOException{
+        BufferedReader read = new BufferedReader(new FileReader(f));
+        StringBuilder build = new StringBuilder();
+        String line;
+        while((line = read.readLine()) != null){
+            build.append(line).append('\n');
+        }
+        read.close();
+        return build.toString();
+    }
+
+    /**
+     * constructor that sets the options used for every run.
+     * @param clauseGenOptions flags for ClauseGen, as they would be given on the command line
+     * @param dpllOptions flags for DPLL, as they would be given on the command line
+     */
+    public Pipeline(String[] clauseGenOptions, String[] dpllOptions){
+        this(clauseGenOptions, dpllOptions, "sat");
+    }
+
+    /**
+     * constructor that sets the options used for every run and the engine that finds the path.
+     * @param clauseGenOptions flags for ClauseGen, as they would be given on the command line
+     * @param dpllOptions flags for DPLL, as they would be given on the command line
+     * @param engine "sat", "dp", "search" or "auto"
+     */
+    public Pipeline(String[] clauseGenOptions, String[] dpllOptions, String engine){
+        this.clauseGenOptions = clauseGenOptions;
+        this.dpllOptions = dpllOptions;
+        this.engine = engine;
+    }
+
+    /**
+     * constructor for a pipeline that uses the default options of every part.
+     */
+    public Pipeline(){
+        this(new String[0], new String[0]);
+    }
+
+    /**
+     * builds a pipeline with the same options as this one, except for the time budget of the search.
+     * @param seconds the time budget for DPLL, or 0 for none
+     * @return a pipeline that uses that budget
+     */
+    public Pipeline withTimeout(double seconds){
+        ArrayList<String> options = new ArrayList<String>();
+        for(int i = 0; i < dpllOptions.length; i ++){
+            if(!dpllOptions[i].startsWith("--timeout=")){
+                options.add(dpllOptions[i]);
+            }
+        }
+        if(seconds > 0){
+            options.add("--timeout=" + seconds);
+        }
+        return new Pipeline(clauseGenOptions, options.toArray(new String[0]), engine);
+    }
+
+    /**
+     * getter for the time budget of the search, given with --timeout=seconds.
+     * @return the budget in milliseconds, or 0 for none
+     */
+    public long getTimeLimitMillis(){
+        long timeLimitMillis = 0;
+        for(int i = 0; i < dpllOptions.length; i ++){
+            if(dpllOptions[i].startsWith("--timeout=")){
+                timeLimitMillis = (long)(Double.parseDouble(dpllOptions[i].substring(10)) * 1000);
+            }
+        }
+        return timeLimitMillis;
+    }
+
+    /**
+     * runs the whole pipeline on a graph.
+     * @param edgeList the graph, in the same format as the input file to ClauseGen
+     * @return the path (or null if there is none, or the search ran out of time), whether the
+     *         search ran out of time, the engine that answered and the time spent in each part
+     * @throws IOException if the DPLL input could not be read back
+     */
+    public PipelineResult run(String edgeList) throws IOException{
+        return run(edgeList, 0);
+    }
+
+    /**
+     * runs the whole pipeline on a graph, giving up at a fixed time instead of once the
+     * --timeout budget has passed since the search started.  Time spent waiting for other runs
+     * to let go of the parts is taken out of what is left, so a caller such as SolverDaemon can
+     * start the budget when a request arrives.  A run whose deadline has passed before it's
+     * search starts does not search at all, and gives back a result that ran out of time.
+     * @param edgeList the graph, in the same format as the input file to ClauseGen
+     * @param deadline System.nanoTime() at which the search gives up, in place of the --timeout
+     *                 budget, or 0 to use the budget
+     * @return the path (or null if there is none, or the search ran out of time), whether the
+     *         search ran out of time, the engine that answered and the time spent in each part
+     * @throws IOException if the DPLL input could not be read back
+     */
+    public PipelineResult run(String edgeList, long deadline) throws IOException{
+        synchronized(Pipeline.class){
+            long start = System.nanoTime();
+            ClauseGen.resetOptions();
+            for(int i = 0; i < clauseGenOptions.length; i ++){
+                if(!ClauseGen.setOption(clauseGenOptions[i])){
+                    throw new IllegalArgumentException("Unknown ClauseGen option " + clauseGenOptions[i]);
+                }
+            }
+            ClauseGen.graph = ClauseGen.readGraph(new Scanner(edgeList));
+            String usedEngine = engine.equals("auto") ? chooseEngine(ClauseGen.graph.getVertices()) : engine;
+            if(usedEngine.equals("dp") && ClauseGen.graph.getVertices().size() > PathCounter.MAX_VERTICES){
+                System.err.println("Warning: the subset table holds at most " + PathCounter.MAX_VERTICES + " vertices, so the path search is used instead.");
+                usedEngine = "search";
+            }
+            if(!usedEngine.equals("sat")){
+                return runDirect(usedEngine, start, deadline);
+            }
+            ByteArrayOutputStream cnf = new ByteArrayOutputStream();
+            File mappedFile = null; //a mapped input has to be a file, so it is not kept in memory
+            if(ClauseGen.mapped){
+                mappedFile = File.createTempFile("pipeline", ".map");
+                mappedFile.deleteOnExit();
+                ClauseGen.writeMapped(mappedFile);
+            }
+            else if(ClauseGen.binary){
+                ClauseGen.writeBinary(cnf);
+            }
+            else{
+                ClauseGen.writeText(new OutputStreamWriter(cnf, "UTF-8"));
+            }
+            long cnfBytes = mappedFile != null ? mappedFile.length() : cnf.size();
+            long generated = System.nanoTime();
+
+            DPLL.reset();
+            DPLL.resetOptions();
+            DPLL.verbose = false;
+            for(int i = 0; i < dpllOptions.length; i ++){
+                if(!DPLL.setOption(dpllOptions[i])){
+                    throw new IllegalArgumentException("Unknown DPLL option " + dpllOptions[i]);
+                }
+            }
+            if(mappedFile != null){
+                DPLL.readMapped(mappedFile);
+            }
+            else{
+                DPLL.readStream(new ByteArrayInputStream(cnf.toByteArray()));
+            }
+            cnf = null;
+            long parsed = System.nanoTime();
+
+            boolean success = false;
+            boolean timedOut = true;
+            if(deadline == 0 || deadline > parsed){
+                if(deadline != 0){
+                    DPLL.timeLimitMillis = Math.max(1, (deadline - parsed) / 1000000); //0 would mean no budget at all
+                }
+                success = DPLL.solve();
+                timedOut = DPLL.timedOut;
+            }
+            long solved = System.nanoTime();
+            if(mappedFile != null){
+                mappedFile.delete();
+            }
+
+            StringWriter results = new StringWriter();
+            DPLL.writeResults(success, results);
+            ArrayList<Entry> path = ResultGen.decode(new BufferedReader(new StringReader(results.toString())));
+            return new PipelineResult(path, timedOut, usedEngine, generated - start, parsed - generated,
+                                      solved - parsed, System.nanoTime() - solved, cnfBytes);
+        }
+    }
+
+    /**
+     * finds the path of the graph ClauseGen has just read with the subset table or the path
+     * search, without writing any clauses.  The time budget is the one given to DPLL, or what is
+     * left before the deadline if there is one.
+     * @param usedEngine "dp" or "search"
+     * @param start System.nanoTime() when the run started
+     * @param deadline System.nanoTime() at which the search gives up, or 0 to use the budget
+     * @return the path, or null if there is none (or the search ran out of time), and the time spent
+     */
+    private PipelineResult runDirect(String usedEngine, long start, long deadline){
+        long timeLimitMillis = getTimeLimitMillis();
+        long generated = System.nanoTime();
+        if(deadline != 0){
+            if(deadline <= generated){
+                return new PipelineResult(null, true, usedEngine, generated - start, 0, 0, 0, 0);
+            }
+            timeLimitMillis = Math.max(1, (deadline - generated) / 1000000);
+        }
+
+        String[] names;
+        int[] found;
+        boolean timedOut;
+        if(usedEngine.equals("dp")){
+            GraphFooter graph = new GraphFooter(ClauseGen.graph.footer(), new ArrayList<Symbol>());
+            PathCounter counter = new PathCounter(graph);
+            counter.count();
+            found = counter.getPath();
+            names = new String[graph.getNumVertices()];
+            for(int i = 0; i < names.length; i ++){
+                names[i] = graph.getName(i);
+            }
+            timedOut = false;
+        }
+        else{
+            PathSearch search = new PathSearch(ClauseGen.graph.getVertices());
+            found = search.search(timeLimitMillis);
+            names = new String[ClauseGen.graph.getVertices().size()];
+            for(int i = 0; i < names.length; i ++){
+                names[i] = search.getName(i);
+            }
+            timedOut = search.timedOut();
+        }
+        long solved = System.nanoTime();
+
+        ArrayList<Entry> path = null;
+        if(found != null){
+            path = new ArrayList<Entry>();
+            for(int i = 0; i < found.length; i ++){
+                path.add(new Entry(names[found[i]], i + 1));
+            }
+        }
+        return new PipelineResult(path, timedOut, usedEngine, generated - start, 0, solved - generated, System.nanoTime() - solved, 0);
+    }
+
+    /**
+     * formats a path the way ResultGen prints it.
+     * @param path the path a run found, or null
+     * @return "Solution: [...]" if there is a path, or "No Solution!" if there is not
+     */
+    public static String format(ArrayList<Entry> path){
+        if(path == null){
+            return "No Solution!";
+        }
+        return "Solution: " + path.toString();
+    }
+}
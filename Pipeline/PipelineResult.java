@@ -0,0 +1,143 @@
+import java.util.*;
+/**
+ * The outcome of one run of the Pipeline: the path that was found, whether the search ran
+ * out of time, the engine that answered, and the time spent in each part.  Pipeline.run()
+ * gives back a new one for every run, and nothing in it changes afterwards, so a caller can
+ * read it after the run has let go of the Pipeline's lock while other runs are going on.
+ *
+ * A run that ran out of time has no path, the same as a graph that has none, so timedOut()
+ * has to be checked before a missing path is taken to mean there is no Hamiltonian path.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class PipelineResult{
+    private final ArrayList<Entry> path; //the vertices of the path in order, or null if none was found
+    private final boolean timedOut; //true if the search ran out of time before it answered
+    private final String engine; //"sat", "dp", "search", or "cache" if the answer was looked up
+    private final long generateNanos; //time spent reading the graph and writing the clauses
+    private final long parseNanos; //time spent reading the clauses into DPLL
+    private final long solveNanos; //time spent searching
+    private final long decodeNanos; //time spent writing and reading the results
+    private final long cnfBytes; //size of the DPLL input, or 0 if no clauses were written
+
+    /**
+     * constructor that sets every part of the outcome.
+     * @param path the vertices of the path in order, or null if none was found
+     * @param timedOut true if the search ran out of time
+     * @param engine the engine that answered
+     * @param generateNanos nanoseconds spent reading the graph and writing the clauses
+     * @param parseNanos nanoseconds spent reading the clauses into DPLL
+     * @param solveNanos nanoseconds spent searching
+     * @param decodeNanos nanoseconds spent writing and reading the results
+     * @param cnfBytes size of the DPLL input
+     */
+    public PipelineResult(ArrayList<Entry> path, boolean timedOut, String engine, long generateNanos,
+                          long parseNanos, long solveNanos, long decodeNanos, long cnfBytes){
+        this.path = path == null ? null : new ArrayList<Entry>(path);
+        this.timedOut = timedOut;
+        this.engine = engine;
+        this.generateNanos = generateNanos;
+        this.parseNanos = parseNanos;
+        this.solveNanos = solveNanos;
+        this.decodeNanos = decodeNanos;
+        this.cnfBytes = cnfBytes;
+    }
+
+    /**
+     * getter for the path that was found.  The list is a copy, so changing it does not change
+     * this result.
+     * @return the vertices of a Hamiltonian path in order, or null if there is none or the
+     *         search ran out of time
+     */
+    public ArrayList<Entry> getPath(){
+        return path == null ? null : new ArrayList<Entry>(path);
+    }
+
+    /**
+     * tells whether a path was found.
+     * @return true if there is a path
+     */
+    public boolean hasPath(){
+        return path != null;
+    }
+
+    /**
+     * tells whether the run gave up because of the time budget given with --timeout=seconds.
+     * @return true if the search ran out of time
+     */
+    public boolean timedOut(){
+        return timedOut;
+    }
+
+    /**
+     * tells whether the run answered, with a path or with proof that there is none.
+     * @return true if the search did not run out of time
+     */
+    public boolean isFinished(){
+        return !timedOut;
+    }
+
+    /**
+     * getter for the engine that answered
+     * @return "sat", "dp", "search", or "cache" if the answer was looked up
+     */
+    public String getEngine(){
+        return engine;
+    }
+
+    /**
+     * getter for the time spent generating clauses
+     * @return nanoseconds spent in ClauseGen
+     */
+    public long getGenerateNanos(){
+        return generateNanos;
+    }
+
+    /**
+     * getter for the time spent reading clauses
+     * @return nanoseconds spent reading the DPLL input
+     */
+    public long getParseNanos(){
+        return parseNanos;
+    }
+
+    /**
+     * getter for the time spent searching
+     * @return nanoseconds spent in the search
+     */
+    public long getSolveNanos(){
+        return solveNanos;
+    }
+
+    /**
+     * getter for the time spent writing and decoding results
+     * @return nanoseconds spent producing the path
+     */
+    public long getDecodeNanos(){
+        return decodeNanos;
+    }
+
+    /**
+     * getter for the total time spent in every part
+     * @return nanoseconds spent in the whole run
+     */
+    public long getTotalNanos(){
+        return generateNanos + parseNanos + solveNanos + decodeNanos;
+    }
+
+    /**
+     * getter for the size of the DPLL input
+     * @return the number of bytes ClauseGen wrote, or 0 if no clauses were written
+     */
+    public long getCnfBytes(){
+        return cnfBytes;
+    }
+
+    /**
+     * formats the outcome the way ResultGen prints it.
+     * @return "Solution: [...]", "No Solution!" or "Out of time!"
+     */
+    public String toString(){
+        return timedOut ? "Out of time!" : Pipeline.format(path);
+    }
+}
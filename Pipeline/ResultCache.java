@@ -0,0 +1,208 @@
+import java.util.*;
+import java.io.*;
+/**
+ * This class is an on disk store of solved graphs, kept below a size limit by throwing out
+ * the least recently used entries.  Each entry is a file in the cache directory, named by
+ * the key of a GraphFingerprint, holding the answer followed by the canonical form of the
+ * graph:
+ *
+ *   SAT or UNSAT
+ *   the path as canonical vertex numbers separated by spaces (empty for UNSAT)
+ *   the canonical form
+ *
+ * A lookup only counts as a hit if the stored canonical form matches exactly, so two graphs
+ * that happen to share a hash can never be confused.  The last modified time of each file
+ * records when it was last used, so the eviction order survives restarts.
+ *
+ * The number of hits and misses and the time spent looking up entries are kept so that
+ * the cache's hit rate and latency can be reported.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class ResultCache{
+    private File directory; //directory holding the entry files
+    private long maxBytes; //total size the entries may take up
+    private long totalBytes = 0; //total size the entries take up now
+    private LinkedHashMap<String, Long> sizes = new LinkedHashMap<String, Long>(16, 0.75f, true); //entry sizes, least recently used first
+    private long hits = 0; //number of lookups that found an answer
+    private long misses = 0; //number of lookups that did not
+    private long lookupNanos = 0; //total time spent in lookups
+
+    /**
+     * constructor that opens (or creates) a cache directory, reading the entries
+     * already in it from least to most recently used.
+     * @param directory the cache directory
+     * @param maxBytes the total size the entries may take up
+     * @throws IOException if the directory could not be created
+     */
+    public ResultCache(File directory, long maxBytes) throws IOException{
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            throw new IOException("Could not create cache directory " + directory);
+        }
+        File[] files = directory.listFiles();
+        Arrays.sort(files, new Comparator<File>(){
+            public int compare(File a, File b){
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        String name;
+        for(int i = 0; i < files.length; i ++){
+            name = files[i].getName();
+            if(name.endsWith(".entry")){
+                sizes.put(name.substring(0, name.length() - 6), files[i].length());
+                totalBytes += files[i].length();
+            }
+        }
+        evict();
+    }
+
+    /**
+     * looks up the answer for a graph.
+     * @param fingerprint fingerprint of the graph
+     * @return null on a miss; otherwise an array of canonical vertex numbers giving the path,
+     *         which is empty if the graph has no Hamiltonian path
+     */
+    public synchronized int[] lookup(GraphFingerprint fingerprint){
+        long start = System.nanoTime();
+        int[] path = null;
+        String key = fingerprint.getKey();
+        if(sizes.get(key) != null){ //also marks the entry as most recently used
+            path = readEntry(key, fingerprint.getCanonicalForm());
+        }
+        if(path == null){
+            misses ++;
+        }
+        else{
+            hits ++;
+            entryFile(key).setLastModified(System.currentTimeMillis());
+        }
+        lookupNanos += System.nanoTime() - start;
+        return path;
+    }
+
+    /**
+     * stores the answer for a graph, throwing out old entries if the cache grows too large.
+     * @param fingerprint fingerprint of the graph
+     * @param path canonical vertex numbers giving the path, or null if there is none
+     */
+    public synchronized void store(GraphFingerprint fingerprint, int[] path){
+        String key = fingerprint.getKey();
+        StringBuilder build = new StringBuilder();
+        build.append(path == null ? "UNSAT" : "SAT").append('\n');
+        if(path != null){
+            for(int i = 0; i < path.length; i ++){
+                build.append(i == 0 ? "" : " ").append(path[i]);
+            }
+        }
+        build.append('\n');
+        build.append(fingerprint.getCanonicalForm());
+        File f = entryFile(key);
+        try{
+            Writer output = new BufferedWriter(new FileWriter(f, false));
+            output.write(build.toString());
+            output.close();
+        }
+        catch(IOException e){
+            System.err.println("Warning: cache entry \"" + f + "\" could not be written.");
+            f.delete();
+            return;
+        }
+        Long old = sizes.remove(key);
+        if(old != null){
+            totalBytes -= old;
+        }
+        sizes.put(key, f.length());
+        totalBytes += f.length();
+        evict();
+    }
+
+    /**
+     * reads an entry file, checking that it is for the same canonical form.
+     * @param key the entry's key
+     * @param canonicalForm canonical form of the graph being looked up
+     * @return the stored path (empty for UNSAT), or null if the entry could not be used
+     */
+    private int[] readEntry(String key, String canonicalForm){
+        try{
+            BufferedReader read = new BufferedReader(new FileReader(entryFile(key)));
+            String answer = read.readLine();
+            String pathLine = read.readLine();
+            StringBuilder form = new StringBuilder(canonicalForm.length());
+            String line;
+            while((line = read.readLine()) != null){
+                form.append(line).append('\n');
+            }
+            read.close();
+            if(answer == null || pathLine == null || !form.toString().equals(canonicalForm)){
+                return null;
+            }
+            if(answer.equals("UNSAT") || pathLine.equals("")){
+                return new int[0];
+            }
+            String[] numbers = pathLine.split(" ");
+            int[] path = new int[numbers.length];
+            for(int i = 0; i < numbers.length; i ++){
+                path[i] = Integer.parseInt(numbers[i]);
+            }
+            return path;
+        }
+        catch(IOException e){
+            return null;
+        }
+        catch(NumberFormatException e){
+            return null;
+        }
+    }
+
+    /**
+     * throws out the least recently used entries until the cache fits in it's size limit.
+     */
+    private void evict(){
+        Iterator<Map.Entry<String, Long>> oldest = sizes.entrySet().iterator();
+        Map.Entry<String, Long> entry;
+        while(totalBytes > maxBytes && oldest.hasNext()){
+            entry = oldest.next();
+            entryFile(entry.getKey()).delete();
+            totalBytes -= entry.getValue();
+            oldest.remove();
+        }
+    }
+
+    /**
+     * returns the file that holds an entry
+     * @param key the entry's key
+     * @return the entry file
+     */
+    private File entryFile(String key){
+        return new File(directory, key + ".entry");
+    }
+
+    /**
+     * getter for the fraction of lookups that were hits
+     * @return hits divided by lookups, or 0 if there have been no lookups
+     */
+    public synchronized double getHitRate(){
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double)hits / lookups;
+    }
+
+    /**
+     * getter for the average time a lookup took
+     * @return the mean lookup time in microseconds, or 0 if there have been no lookups
+     */
+    public synchronized double getMeanLookupMicros(){
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : lookupNanos / 1000.0 / lookups;
+    }
+
+    /**
+     * describes the cache's use so far.
+     * @return a line giving the hits, misses, hit rate, mean lookup time, entries and size
+     */
+    public synchronized String report(){
+        return String.format("cache: %d hits, %d misses, %.1f%% hit rate, %.1f us mean lookup, %d entries, %d bytes",
+                             hits, misses, getHitRate() * 100, getMeanLookupMicros(), sizes.size(), totalBytes);
+    }
+}
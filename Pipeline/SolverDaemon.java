@@ -0,0 +1,325 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
+import java.net.*;
+import java.lang.reflect.*;
+/**
+ * This class keeps one JVM running and answers Hamiltonian path requests with the in memory
+ * Pipeline, so that a request does not pay for starting three programs and warming up the JIT
+ * compiler.  Requests are read one per line, either from standard input or from connections
+ * to a port on this machine.  Each line is one of:
+ *
+ *   an edge list           the graph written on one line, e.g. "3 A B B C"
+ *   TIMEOUT seconds graph  the same, with it's own time budget for the search
+ *   STATS                  reports the number of requests, their latency percentiles, and
+ *                          how long they waited for a solver
+ *   QUIT                   closes the connection (or ends the program, on standard input)
+ *
+ * ClauseGen reads it's input one word at a time, so an edge list on one line means the same
+ * as it does in a file.  Each request gets one line in reply, the way ResultGen prints it
+ * ("Solution: [...]" or "No Solution!"), or "Out of time!" or "Error: ...".  Replies are
+ * written in the same order as the requests on that connection, though later requests may
+ * be worked on before earlier ones finish.  A STATS request waits for the requests sent
+ * before it on the same connection, so that they are included.
+ *
+ * Requests are handled on virtual threads when the JVM has them (Java 21 and later), and
+ * on a pool of ordinary threads otherwise.  The searching itself is handed to a fixed pool of
+ * solver threads so that a burst of requests cannot start more searches than there are
+ * processors.  ClauseGen and DPLL keep their state in static variables, so only one search
+ * actually runs at a time (see Pipeline); the other solver threads wait for it.  A request's
+ * time budget starts when it is read, not when it's search starts, so time spent waiting for
+ * a solver comes out of it, and a request that waited out it's whole budget is answered
+ * "Out of time!" without searching.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class SolverDaemon{
+    private static final Future<String> END = CompletableFuture.completedFuture(null); //marks the end of a connection's requests
+
+    private Pipeline pipeline; //pipeline used for requests without their own budget
+    private ExecutorService requests; //runs each request
+    private ExecutorService solvers; //runs each search
+    private int numSolvers; //number of solver threads
+    private LatencyHistogram latency = new LatencyHistogram(); //time from reading each request to it's reply
+    private LatencyHistogram waiting = new LatencyHistogram(); //part of that time spent waiting for a solver, rather than solving
+    private long solved = 0; //requests that found a path
+    private long unsolvable = 0; //requests that proved there is no path
+    private long timeouts = 0; //requests that ran out of time
+    private long errors = 0; //requests that could not be answered
+
+    /**
+     * Main method.  It serves requests from standard input, or from a port if one is given.
+     * @param args optional flags: --port=number to listen on a port of this machine instead of
+     *             standard input, --solvers=number for the size of the solver pool (1 by default),
+     *             and any flags of the three parts, such as --timeout=seconds for the default budget
+     */
+    public static void main(String[] args){
+        int port = -1;
+        int numSolvers = 1;
+        ArrayList<String> flags = new ArrayList<String>();
+        for(int i = 0; i < args.length; i ++){
+            if(args[i].startsWith("--port=")){
+                port = Integer.parseInt(args[i].substring(7));
+            }
+            else if(args[i].startsWith("--solvers=")){
+                numSolvers = Integer.parseInt(args[i].substring(10));
+            }
+            else{
+                flags.add(args[i]);
+            }
+        }
+        Pipeline pipeline = null;
+        try{
+            pipeline = Pipeline.fromFlags(flags.toArray(new String[0]));
+        }
+        catch(IllegalArgumentException e){
+            System.err.println("Error: " + e.getMessage() + ".\nTerminating...");
+            System.exit(1);
+        }
+        SolverDaemon daemon = new SolverDaemon(pipeline, numSolvers);
+        try{
+            if(port < 0){
+                daemon.serve(new BufferedReader(new InputStreamReader(System.in, "UTF-8")),
+                             new BufferedWriter(new OutputStreamWriter(System.out, "UTF-8")));
+            }
+            else{
+                daemon.listen(port);
+            }
+        }
+        catch(IOException e){
+            System.err.println("Error: " + e.getMessage() + "\nTerminating...\n");
+            System.exit(1);
+        }
+        daemon.shutdown();
+    }
+
+    /**
+     * constructor that starts the request and solver threads.
+     * @param pipeline the pipeline used for requests without their own budget
+     * @param numSolvers number of solver threads
+     */
+    public SolverDaemon(Pipeline pipeline, int numSolvers){
+        this.pipeline = pipeline;
+        this.numSolvers = numSolvers;
+        requests = requestExecutor();
+        solvers = Executors.newFixedThreadPool(numSolvers);
+    }
+
+    /**
+     * creates the executor that runs requests: one virtual thread per request if the JVM has
+     * them, otherwise a pool of ordinary threads that grows as needed.
+     * @return the request executor
+     */
+    private static ExecutorService requestExecutor(){
+        try{
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService)virtual.invoke(null);
+        }
+        catch(ReflectiveOperationException e){ //virtual threads are not available in this JVM
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * accepts connections on a port of this machine until the program is stopped, serving
+     * each connection on it's own request thread.
+     * @param port the port to listen on
+     * @throws IOException if the port could not be opened
+     */
+    public void listen(int port) throws IOException{
+        ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        System.out.println("Listening on " + server.getLocalSocketAddress());
+        while(true){
+            final Socket connection = server.accept();
+            requests.execute(new Runnable(){
+                public void run(){
+                    try{
+                        serve(new BufferedReader(new InputStreamReader(connection.getInputStream(), "UTF-8")),
+                              new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), "UTF-8")));
+                        connection.close();
+                    }
+                    catch(IOException e){
+                        System.err.println("Warning: connection from " + connection.getRemoteSocketAddress() + " failed: " + e.getMessage());
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * answers every request read from a stream until it ends or a QUIT request is read.
+     * Each request is started as soon as it is read, and a separate thread writes the
+     * replies in order as they finish.
+     * @param input where requests are read from
+     * @param output where replies are written
+     * @throws IOException if the requests could not be read or the replies could not be written
+     */
+    public void serve(BufferedReader input, final BufferedWriter output) throws IOException{
+        final LinkedBlockingQueue<Future<String>> replies = new LinkedBlockingQueue<Future<String>>();
+        final IOException[] writeError = new IOException[1];
+        Thread writer = new Thread(new Runnable(){
+            public void run(){
+                try{
+                    Future<String> reply;
+                    while((reply = replies.take()) != END){
+                        output.write(reply.get());
+                        output.write('\n');
+                        if(replies.isEmpty()){
+                            output.flush();
+                        }
+                    }
+                    output.flush();
+                }
+                catch(IOException e){
+                    writeError[0] = e;
+                }
+                catch(InterruptedException e){
+                    Thread.currentThread().interrupt();
+                }
+                catch(ExecutionException e){ //handle() reports it's own errors, so this is not expected
+                    writeError[0] = new IOException(e.getCause());
+                }
+            }
+        });
+        writer.start();
+
+        ArrayList<Future<String>> unanswered = new ArrayList<Future<String>>(); //requests on this connection that may still be running, which the writer may have taken off the queue already
+        String line;
+        try{
+            while((line = input.readLine()) != null){
+                line = line.trim();
+                if(line.equals("")){
+                    continue;
+                }
+                if(line.equals("QUIT")){
+                    break;
+                }
+                final String request = line;
+                final long received = System.nanoTime();
+                for(Iterator<Future<String>> i = unanswered.iterator(); i.hasNext(); ){
+                    if(i.next().isDone()){
+                        i.remove();
+                    }
+                }
+                final ArrayList<Future<String>> earlier = new ArrayList<Future<String>>(request.equals("STATS") ? unanswered : Collections.<Future<String>>emptyList());
+                Future<String> reply = requests.submit(new Callable<String>(){
+                    public String call() throws InterruptedException{
+                        for(int i = 0; i < earlier.size(); i ++){ //STATS includes every request sent before it
+                            try{
+                                earlier.get(i).get();
+                            }
+                            catch(ExecutionException e){ //that request's own reply reports it
+                            }
+                        }
+                        return handle(request, received);
+                    }
+                });
+                unanswered.add(reply);
+                replies.add(reply);
+            }
+        }
+        finally{
+            replies.add(END);
+            try{
+                writer.join();
+            }
+            catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+        if(writeError[0] != null){
+            throw writeError[0];
+        }
+    }
+
+    /**
+     * answers one request.
+     * @param request the request line
+     * @param received System.nanoTime() when the request was read
+     * @return the reply line
+     */
+    String handle(String request, long received){
+        if(request.equals("STATS")){
+            return stats();
+        }
+        Pipeline chosen = pipeline;
+        String graph = request;
+        try{
+            if(request.startsWith("TIMEOUT ")){
+                String[] parts = request.split(" +", 3);
+                if(parts.length < 3){
+                    throw new IllegalArgumentException("TIMEOUT needs a number of seconds and a graph");
+                }
+                chosen = pipeline.withTimeout(Double.parseDouble(parts[1]));
+                graph = parts[2];
+            }
+            final Pipeline run = chosen;
+            final String edgeList = graph;
+            final long deadline = run.getTimeLimitMillis() > 0 ? received + run.getTimeLimitMillis() * 1000000L : 0;
+            PipelineResult result = solvers.submit(new Callable<PipelineResult>(){
+                public PipelineResult call() throws IOException{
+                    return run.run(edgeList, deadline);
+                }
+            }).get();
+            String reply = result.toString();
+            synchronized(this){
+                if(reply.startsWith("Solution")){
+                    solved ++;
+                }
+                else if(reply.startsWith("No")){
+                    unsolvable ++;
+                }
+                else{
+                    timeouts ++;
+                }
+            }
+            long took = System.nanoTime() - received;
+            latency.record(took);
+            waiting.record(Math.max(0, took - result.getTotalNanos()));
+            return reply;
+        }
+        catch(ExecutionException e){
+            return error(e.getCause(), received);
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            return error(e, received);
+        }
+        catch(RuntimeException e){
+            return error(e, received);
+        }
+    }
+
+    /**
+     * counts a request that could not be answered and describes why.
+     * @param cause what went wrong
+     * @param received System.nanoTime() when the request was read
+     * @return the reply line
+     */
+    private String error(Throwable cause, long received){
+        synchronized(this){
+            errors ++;
+        }
+        latency.record(System.nanoTime() - received);
+        return "Error: " + (cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage());
+    }
+
+    /**
+     * describes the requests answered so far.
+     * @return a line giving the number of each kind of answer, the latency percentiles, and
+     *         the percentiles of the time answered requests spent waiting for a solver
+     */
+    public synchronized String stats(){
+        return "requests " + latency.getCount() + ", solved " + solved + ", no solution " + unsolvable + ", out of time "
+               + timeouts + ", errors " + errors + ", solvers " + numSolvers + ", latency " + latency.report()
+               + ", waiting " + waiting.report();
+    }
+
+    /**
+     * stops the request and solver threads once their work is done.
+     */
+    public void shutdown(){
+        requests.shutdown();
+        solvers.shutdown();
+    }
+}
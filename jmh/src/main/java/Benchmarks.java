@@ -0,0 +1,63 @@
+import java.util.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+/**
+ * Runs the JMH benchmarks in the benchmarks package with the options this project has
+ * always used, and writes the results as CSV so that runs can be compared to find
+ * regressions.  The GC profiler is added so every row also has the bytes allocated per
+ * operation and the garbage collections.  For any other JMH option, run
+ * java -cp benchmarks.jar org.openjdk.jmh.Main instead.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class Benchmarks{
+    /**
+     * Main method.  It runs every benchmark whose name matches the filter.
+     * @param args optional flags: --out [file] for the CSV file (benchmark-results.csv by default),
+     *             --filter [regex] to run only matching benchmarks, --warmup [n] and --iterations [n]
+     */
+    public static void main(String[] args){
+        String out = "benchmark-results.csv";
+        String filter = "benchmarks\\..*";
+        int warmup = 5;
+        int iterations = 10;
+        for(int i = 0; i + 1 < args.length; i += 2){
+            if(args[i].equals("--out")){
+                out = args[i + 1];
+            }
+            else if(args[i].equals("--filter")){
+                filter = args[i + 1];
+            }
+            else if(args[i].equals("--warmup")){
+                warmup = Integer.parseInt(args[i + 1]);
+            }
+            else if(args[i].equals("--iterations")){
+                iterations = Integer.parseInt(args[i + 1]);
+            }
+            else{
+                System.err.println("Warning: unknown option \"" + args[i] + "\" was ignored.");
+            }
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .include(filter)
+            .warmupIterations(warmup)
+            .measurementIterations(iterations)
+            .forks(1)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.CSV)
+            .result(out);
+        try{
+            new Runner(options.build()).run();
+            System.out.println("Results written to " + out);
+        }
+        catch(RunnerException e){
+            System.err.println("Error: the benchmarks could not be run: " + e.getMessage() + "\nTerminating...");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.*;
+import java.io.*;
+/**
+ * Implements the benchmarks' view of the pipeline by calling GraphGenerator, ClauseGen, DPLL
+ * and Pipeline directly.  See benchmarks.Stages.
+ *
+ * @author Reed Nathaniel Schick
+ */
+public class PipelineStages implements benchmarks.Stages{
+    private HashMap<Integer, Boolean> solution; //value of each symbol, by name, in the solution keepSolution() kept
+
+    public String graph(String family, long seed, int n, double p){
+        if(family.equals("planted")){
+            return GraphGenerator.plantedGraph(seed, n, p);
+        }
+        return GraphGenerator.randomGraph(seed, n, p);
+    }
+
+    public void readGraph(String edgeList){
+        ClauseGen.resetOptions();
+        ClauseGen.graph = ClauseGen.readGraph(new Scanner(edgeList));
+    }
+
+    public long emitText(){
+        GraphTranslator graph = ClauseGen.graph;
+        long length = graph.allVerticesTraversed().length();
+        length += graph.oneVerticesPerTime().length();
+        length += graph.noIllegalPaths().length();
+        length += graph.vertexAtAllTimes().length();
+        length += graph.singleTraversal().length();
+        length += graph.addTrailer().length();
+        return length;
+    }
+
+    public long emitToSink(){
+        ClauseCounter counter = new ClauseCounter();
+        ClauseGen.graph.writeClauses(counter);
+        return counter.getNumBinary() + counter.getNumLong();
+    }
+
+    public byte[] writeText() throws IOException{
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        ClauseGen.writeText(new OutputStreamWriter(text, "UTF-8"));
+        return text.toByteArray();
+    }
+
+    public byte[] writeBinary() throws IOException{
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        ClauseGen.writeBinary(binary);
+        return binary.toByteArray();
+    }
+
+    public int parse(byte[] input, String[] dpllOptions) throws IOException{
+        DPLL.reset();
+        DPLL.resetOptions();
+        DPLL.verbose = false;
+        for(int i = 0; i < dpllOptions.length; i ++){
+            if(!DPLL.setOption(dpllOptions[i])){
+                throw new IllegalArgumentException("Unknown DPLL option " + dpllOptions[i]);
+            }
+        }
+        DPLL.readStream(new ByteArrayInputStream(input));
+        return DPLL.clauses.size();
+    }
+
+    public boolean solve(){
+        return DPLL.solve();
+    }
+
+    public boolean keepSolution(byte[] input, String[] dpllOptions) throws IOException{
+        if(!DPLL.solve()){
+            return false;
+        }
+        solution = new HashMap<Integer, Boolean>();
+        for(int i = 0; i < DPLL.symbols.size(); i ++){
+            solution.put(DPLL.symbols.get(i).getName(), DPLL.symbols.get(i).getValue());
+        }
+        parse(input, dpllOptions);
+        return true;
+    }
+
+    public int assign(double fraction, long seed){
+        Model model = DPLL.model;
+        while(model.size() > 0){
+            model.removeRecent();
+        }
+        ArrayList<Symbol> order = new ArrayList<Symbol>(DPLL.symbols);
+        Collections.sort(order);
+        Collections.shuffle(order, new Random(seed));
+        int count = Math.max(1, (int)(fraction * order.size()));
+        Boolean value;
+        for(int i = 0; i < count; i ++){
+            value = solution.get(order.get(i).getName());
+            model.add(order.get(i), value == null ? false : value); //a symbol the solution did not need is false, as ResultGen reads it
+        }
+        Symbol last = model.get(model.size() - 1);
+        for(int i = 0; i < DPLL.clauses.size(); i ++){
+            for(int j = 0; j < DPLL.clauses.get(i).size(); j ++){
+                if(DPLL.clauses.get(i).getLiteral(j).getSym() == last){
+                    return i;
+                }
+            }
+        }
+        return 0;
+    }
+
+    public Boolean updateClause(int index){
+        return DPLL.clauses.get(index).updateClause();
+    }
+
+    public Boolean hasSolution(){
+        return DPLL.model.hasSolution();
+    }
+
+    public boolean runPipeline(String edgeList, String engine, String[] dpllOptions) throws IOException{
+        return new Pipeline(new String[0], dpllOptions, engine).run(edgeList).hasPath();
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for producing clauses in part 1: as text, into a ClauseSink, and as the whole
+ * DPLL input in both formats.  The graphs are GraphGenerator's seeded planted graphs, so
+ * every run sees the same input.
+ *
+ * @author Reed Nathaniel Schick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GenerationBenchmark{
+    @Param({"20", "40"})
+    public int n; //number of vertices
+
+    private Stages stages;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        stages = Stages.load();
+        stages.readGraph(stages.graph("planted", 1, n, 0.2));
+    }
+
+    @Benchmark
+    public long emitText(){
+        return stages.emitText();
+    }
+
+    @Benchmark
+    public long emitToSink(){
+        return stages.emitToSink();
+    }
+
+    @Benchmark
+    public byte[] writeText() throws IOException{
+        return stages.writeText();
+    }
+
+    @Benchmark
+    public byte[] writeBinary() throws IOException{
+        return stages.writeBinary();
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for reading the DPLL input into part 2, in the text and binary formats.  Both
+ * inputs are written once, before measuring, from the same seeded graph.
+ *
+ * @author Reed Nathaniel Schick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParsingBenchmark{
+    @Param({"14"})
+    public int n; //number of vertices
+
+    private Stages stages;
+    private byte[] text; //the DPLL input as text
+    private byte[] binary; //the DPLL input in the binary format
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException{
+        stages = Stages.load();
+        stages.readGraph(stages.graph("planted", 2, n, 0.2));
+        text = stages.writeText();
+        binary = stages.writeBinary();
+    }
+
+    @Benchmark
+    public int parseText() throws IOException{
+        return stages.parse(text, new String[0]);
+    }
+
+    @Benchmark
+    public int parseBinary() throws IOException{
+        return stages.parse(binary, new String[0]);
+    }
+}
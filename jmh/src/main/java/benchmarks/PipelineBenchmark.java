@@ -0,0 +1,39 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for the whole pipeline in memory, with each engine, on seeded graphs.
+ *
+ * @author Reed Nathaniel Schick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PipelineBenchmark{
+    @Param({"planted", "gnp"})
+    public String family; //which of GraphGenerator's graphs to solve
+
+    @Param({"10"})
+    public int n; //number of vertices
+
+    @Param({"sat", "dp", "search"})
+    public String engine; //how the path is found
+
+    private Stages stages;
+    private String graph; //the graph, as an edge list
+
+    @Setup(Level.Trial)
+    public void setup(){
+        stages = Stages.load();
+        graph = stages.graph(family, 5, n, 0.3);
+    }
+
+    @Benchmark
+    public boolean run() throws IOException{
+        return stages.runPipeline(graph, engine, new String[0]);
+    }
+}
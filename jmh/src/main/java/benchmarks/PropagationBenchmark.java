@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for the two steps DPLL takes after every value it gives a symbol: updating one
+ * clause, and updating the whole model to see whether it has a solution.  The graph is a
+ * planted one, so it has a solution, and the model is given part of that solution, so no
+ * clause is made false and every clause is looked at.  Updating changes the clauses and the
+ * model, so the same part of the solution is put back before every invocation.
+ *
+ * @author Reed Nathaniel Schick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PropagationBenchmark{
+    @Param({"10", "14"})
+    public int n; //number of vertices
+
+    @Param({"0.5"})
+    public double fraction; //share of the symbols given a value before each invocation
+
+    private Stages stages;
+    private int clause; //index of a clause with the symbol given a value last
+
+    @Setup(Level.Trial)
+    public void solve() throws IOException{
+        stages = Stages.load();
+        stages.readGraph(stages.graph("planted", 3, n, 0.3));
+        byte[] input = stages.writeText();
+        stages.parse(input, new String[0]);
+        if(!stages.keepSolution(input, new String[0])){
+            throw new IllegalStateException("the planted graph has no solution");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void assign(){
+        clause = stages.assign(fraction, 7);
+    }
+
+    @Benchmark
+    public Boolean updateClause(){
+        return stages.updateClause(clause);
+    }
+
+    @Benchmark
+    public Boolean hasSolution(){
+        return stages.hasSolution();
+    }
+}
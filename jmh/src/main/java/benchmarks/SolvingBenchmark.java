@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for the DPLL search alone.  A search uses up the state it was given, so the
+ * input is parsed again before every invocation and only solve() is measured.
+ *
+ * @author Reed Nathaniel Schick
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SolvingBenchmark{
+    @Param({"planted", "gnp"})
+    public String family; //which of GraphGenerator's graphs to solve
+
+    @Param({"10"})
+    public int n; //number of vertices
+
+    @Param({"none", "--cardinality", "--reachability", "--implications"})
+    public String options; //DPLL flags, separated by spaces
+
+    private Stages stages;
+    private byte[] input; //the DPLL input for the graph
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException{
+        stages = Stages.load();
+        stages.readGraph(stages.graph(family, 5, n, 0.3));
+        input = stages.writeText();
+    }
+
+    @Setup(Level.Invocation)
+    public void parse() throws IOException{
+        stages.parse(input, Stages.flags(options));
+    }
+
+    @Benchmark
+    public boolean solve(){
+        return stages.solve();
+    }
+}
@@ -0,0 +1,142 @@
+package benchmarks;
+
+import java.io.IOException;
+
+/**
+ * The stages of the pipeline, as seen by the benchmarks.  Every part is in the default
+ * package, which a class in a named package can not import, so the benchmarks call the
+ * parts through this interface and the default package class PipelineStages implements it.
+ *
+ * ClauseGen and DPLL keep their state in static variables, so a stage works on whatever the
+ * stage before it left behind: readGraph() before the emit and write stages, parse()
+ * before solve() and keepSolution(), and keepSolution() before assign().
+ *
+ * @author Reed Nathaniel Schick
+ */
+public interface Stages{
+    /**
+     * builds one of GraphGenerator's seeded graphs.
+     * @param family "planted" or "gnp"
+     * @param seed seed for the random edges
+     * @param n number of vertices
+     * @param p probability of each edge
+     * @return the graph, as an edge list
+     */
+    String graph(String family, long seed, int n, double p);
+
+    /**
+     * resets ClauseGen and has it read a graph.
+     * @param edgeList the graph, in the same format as the input file to ClauseGen
+     */
+    void readGraph(String edgeList);
+
+    /**
+     * produces every clause of the graph ClauseGen read as text, without writing it anywhere.
+     * @return the total length of the text
+     */
+    long emitText();
+
+    /**
+     * produces every clause of the graph ClauseGen read into a ClauseSink that counts them.
+     * @return the number of clauses
+     */
+    long emitToSink();
+
+    /**
+     * writes the DPLL input for the graph ClauseGen read as text.
+     * @return the DPLL input
+     * @throws IOException if the input could not be written
+     */
+    byte[] writeText() throws IOException;
+
+    /**
+     * writes the DPLL input for the graph ClauseGen read in the binary format.
+     * @return the DPLL input
+     * @throws IOException if the input could not be written
+     */
+    byte[] writeBinary() throws IOException;
+
+    /**
+     * resets DPLL, sets it's options and has it read an input.
+     * @param input the DPLL input, text or binary
+     * @param dpllOptions flags as they would be given to DPLL
+     * @return the number of clauses read
+     * @throws IOException if the input could not be read
+     */
+    int parse(byte[] input, String[] dpllOptions) throws IOException;
+
+    /**
+     * solves the input DPLL parsed last.
+     * @return true if there is a Hamiltonian path
+     */
+    boolean solve();
+
+    /**
+     * solves the input DPLL parsed last and keeps the value the solution gave each symbol,
+     * then reads the input again so the clauses and symbols are as they were before the search.
+     * @param input the DPLL input DPLL parsed last
+     * @param dpllOptions the flags it was parsed with
+     * @return true if there was a solution to keep
+     * @throws IOException if the input could not be read again
+     */
+    boolean keepSolution(byte[] input, String[] dpllOptions) throws IOException;
+
+    /**
+     * takes every value back out of DPLL's model, then adds a seeded share of the symbols to it
+     * with the value they had in the solution keepSolution() kept, so no clause is made false.
+     * The same fraction and seed always give the same model.
+     * @param fraction share of the symbols to add to the model
+     * @param seed seed for which symbols are added
+     * @return the index in DPLL's clause list of a clause with the symbol that was added last
+     */
+    int assign(double fraction, long seed);
+
+    /**
+     * updates one of DPLL's clauses, as the model does for every clause after a symbol is added.
+     * @param index the index of the clause in DPLL's clause list
+     * @return what the clause's updateClause() gives back
+     */
+    Boolean updateClause(int index);
+
+    /**
+     * asks DPLL's model whether it has a solution, which updates every clause when a symbol
+     * was added since it was last asked.
+     * @return what the model's hasSolution() gives back
+     */
+    Boolean hasSolution();
+
+    /**
+     * runs the whole pipeline in memory.
+     * @param edgeList the graph
+     * @param engine "sat", "dp", "search" or "auto"
+     * @param dpllOptions flags as they would be given to DPLL
+     * @return true if a path was found
+     * @throws IOException if the DPLL input could not be read back
+     */
+    boolean runPipeline(String edgeList, String engine, String[] dpllOptions) throws IOException;
+
+    /**
+     * loads the default package implementation.
+     * @return the stages of the pipeline
+     */
+    static Stages load(){
+        try{
+            return (Stages)Class.forName("PipelineStages").getDeclaredConstructor().newInstance();
+        }
+        catch(ReflectiveOperationException e){
+            throw new IllegalStateException("PipelineStages could not be loaded", e);
+        }
+    }
+
+    /**
+     * splits a benchmark parameter into flags.
+     * @param options flags separated by spaces, or "none"
+     * @return the flags
+     */
+    static String[] flags(String options){
+        if(options.equals("none")){
+            return new String[0];
+        }
+        return options.split(" ");
+    }
+}